@@ -0,0 +1,80 @@
+package testdata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared setup for the benchmarks: connects a TestDataManager to embedded H2,
+ * or to the database named by the tdm.bench.url, tdm.bench.user and
+ * tdm.bench.password system properties, and creates the bench_rows table.
+ */
+final class BenchmarkDatabase {
+    static final String TABLE = "bench_rows";
+    static final int MAX_WIDTH = 16;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * @param name Distinguishes the in-memory H2 database per benchmark class
+     * @param poolSize Pooled connections, or 0 for a single connection
+     * @return Connected manager with an empty bench_rows table
+     * @throws SQLException if the database cannot be reached or prepared
+     */
+    static TestDataManager open(String name, int poolSize) throws SQLException {
+        String url = System.getProperty("tdm.bench.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        String user = System.getProperty("tdm.bench.user", "sa");
+        String password = System.getProperty("tdm.bench.password", "");
+
+        TestDataManager manager = poolSize > 0
+                ? new TestDataManager(url, user, password,
+                        new ConnectionPool.Config().minSize(poolSize).maxSize(poolSize))
+                : new TestDataManager(url, user, password);
+        manager.connect();
+
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS " + TABLE);
+            StringBuilder ddl = new StringBuilder("CREATE TABLE " + TABLE
+                    + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, grp INTEGER");
+            for (int i = 0; i < MAX_WIDTH; i++) {
+                ddl.append(", c").append(i).append(" VARCHAR(32)");
+            }
+            stmt.executeUpdate(ddl.append(')').toString());
+            stmt.executeUpdate("CREATE INDEX " + TABLE + "_grp ON " + TABLE + " (grp)");
+        } finally {
+            manager.releaseConnection(conn);
+        }
+        return manager;
+    }
+
+    /**
+     * @param group Value of the indexed grp column
+     * @param width Number of c-columns to fill
+     * @param seq Distinguishes the row's values
+     * @return One row for insertTestData
+     */
+    static Map<String, Object> row(int group, int width, long seq) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("grp", group);
+        for (int i = 0; i < width; i++) {
+            row.put("c" + i, "v" + seq + "_" + i);
+        }
+        return row;
+    }
+
+    /**
+     * Empties the table between trials
+     */
+    static void clear(TestDataManager manager) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM " + TABLE);
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package testdata;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the suite with the GC profiler attached, so every result carries
+ * gc.alloc.rate and gc.alloc.rate.norm next to throughput and latency, and
+ * writes the results as JSON for comparison between runs.
+ * <p>
+ * Usage: BenchmarkRunner [include-regex] [result-file]
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+        String resultFile = args.length > 1 ? args[1] : "jmh-result.json";
+
+        // Forked JVMs do not inherit system properties, so hand the connection settings on explicitly
+        List<String> jvmArgs = new ArrayList<>();
+        for (String property : new String[] {"tdm.bench.url", "tdm.bench.user", "tdm.bench.password"}) {
+            String value = System.getProperty(property);
+            if (value != null) {
+                jvmArgs.add("-D" + property + "=" + value);
+            }
+        }
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .jvmArgsAppend(jvmArgs.toArray(new String[0]))
+                .build();
+        new Runner(options).run();
+    }
+}
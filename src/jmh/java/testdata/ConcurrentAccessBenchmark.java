@@ -0,0 +1,68 @@
+package testdata;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Drives one pooled manager from several threads at once: a read-heavy mix of
+ * key lookups with a smaller number of concurrent inserts. Pool waits and
+ * statement-cache contention show up as lower throughput and a fatter latency
+ * tail in SampleTime mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConcurrentAccessBenchmark {
+    private static final int ROWS = 10_000;
+    private static final int POOL_SIZE = 8;
+
+    private TestDataManager manager;
+
+    @Setup(Level.Trial)
+    public void open() throws SQLException {
+        manager = BenchmarkDatabase.open("concurrent", POOL_SIZE);
+        List<Map<String, Object>> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(BenchmarkDatabase.row(i % 100, 4, i));
+        }
+        manager.bulkLoad(BenchmarkDatabase.TABLE, rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        manager.disconnect();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public List<Map<String, Object>> lookup() throws SQLException {
+        long id = 1 + ThreadLocalRandom.current().nextInt(ROWS);
+        return manager.retrieveTestData(BenchmarkDatabase.TABLE, Collections.singletonMap("id", id));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public int insert() throws SQLException {
+        return manager.insertTestData(BenchmarkDatabase.TABLE,
+                BenchmarkDatabase.row(ROWS, 4, ThreadLocalRandom.current().nextLong()));
+    }
+}
@@ -0,0 +1,76 @@
+package testdata;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares inserting N rows one insertTestData call at a time against
+ * insertTestDataBatch and bulkLoad. Each operation writes batchRows rows, so
+ * the score is per batch; divide by batchRows for per-row figures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InsertBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int batchRows;
+
+    @Param({"4", "16"})
+    public int width;
+
+    private TestDataManager manager;
+    private List<Map<String, Object>> rows;
+
+    @Setup(Level.Trial)
+    public void open() throws SQLException {
+        manager = BenchmarkDatabase.open("insert", 0);
+        rows = new ArrayList<>(batchRows);
+        for (int i = 0; i < batchRows; i++) {
+            rows.add(BenchmarkDatabase.row(i % 10, width, i));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() throws SQLException {
+        BenchmarkDatabase.clear(manager);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        manager.disconnect();
+    }
+
+    @Benchmark
+    public int singleRowInserts() throws SQLException {
+        int last = 0;
+        for (Map<String, Object> row : rows) {
+            last = manager.insertTestData(BenchmarkDatabase.TABLE, row);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public List<Integer> batchInsert() throws SQLException {
+        return manager.insertTestDataBatch(BenchmarkDatabase.TABLE, rows);
+    }
+
+    @Benchmark
+    public long bulkLoad() throws SQLException {
+        return manager.bulkLoad(BenchmarkDatabase.TABLE, rows);
+    }
+}
@@ -0,0 +1,78 @@
+package testdata;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures result materialisation for result sets of different sizes and
+ * widths: a list of maps, the compact ResultTable and the streaming cursor.
+ * The grp column selects exactly resultRows rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RetrieveBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int resultRows;
+
+    @Param({"4", "16"})
+    public int width;
+
+    private TestDataManager manager;
+    private Map<String, Object> conditions;
+
+    @Setup(Level.Trial)
+    public void open() throws SQLException {
+        manager = BenchmarkDatabase.open("retrieve", 0);
+        List<Map<String, Object>> rows = new ArrayList<>(resultRows + 1000);
+        for (int i = 0; i < resultRows; i++) {
+            rows.add(BenchmarkDatabase.row(1, width, i));
+        }
+        // Rows in other groups keep the query honest about index use
+        for (int i = 0; i < 1000; i++) {
+            rows.add(BenchmarkDatabase.row(2 + i % 10, width, i));
+        }
+        manager.bulkLoad(BenchmarkDatabase.TABLE, rows);
+        conditions = Collections.singletonMap("grp", 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        manager.disconnect();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> retrieveMaps() throws SQLException {
+        return manager.retrieveTestData(BenchmarkDatabase.TABLE, conditions);
+    }
+
+    @Benchmark
+    public ResultTable retrieveCompact() throws SQLException {
+        return manager.retrieveTestDataCompact(BenchmarkDatabase.TABLE, conditions);
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) throws SQLException {
+        try (Stream<Map<String, Object>> rows = manager.streamTestData(BenchmarkDatabase.TABLE, conditions, 1000)) {
+            rows.forEach(blackhole::consume);
+        }
+    }
+}
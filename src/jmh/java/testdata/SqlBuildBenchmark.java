@@ -0,0 +1,53 @@
+package testdata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Isolates the cost of producing SQL text without touching the database:
+ * building a WHERE clause from scratch against a StatementCache lookup with a
+ * freshly built key, which is what every CRUD call pays.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SqlBuildBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int conditionCount;
+
+    private List<String> conditionColumns;
+    private StatementCache cache;
+
+    @Setup
+    public void prepare() {
+        conditionColumns = new ArrayList<>(conditionCount);
+        for (int i = 0; i < conditionCount; i++) {
+            conditionColumns.add("c" + i);
+        }
+        cache = new StatementCache(512, 64);
+    }
+
+    @Benchmark
+    public String buildUncached() {
+        return TestDataManager.appendWhere(new StringBuilder("SELECT * FROM ").append(BenchmarkDatabase.TABLE),
+                conditionColumns).toString();
+    }
+
+    @Benchmark
+    public String cachedLookup() {
+        List<String> columns = new ArrayList<>(conditionColumns);
+        StatementCache.Key key = new StatementCache.Key("SELECT", BenchmarkDatabase.TABLE, List.of(), columns);
+        return cache.sql(key, this::buildUncached);
+    }
+}
@@ -0,0 +1,65 @@
+package testdata;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures single-row updateTestData by primary key, and an insert followed by
+ * deleteTestData so the table size stays constant across invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UpdateDeleteBenchmark {
+    private static final int ROWS = 10_000;
+
+    private TestDataManager manager;
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void open() throws SQLException {
+        manager = BenchmarkDatabase.open("update", 0);
+        for (int i = 0; i < ROWS; i += 1000) {
+            List<Map<String, Object>> rows = new ArrayList<>(1000);
+            for (int j = 0; j < 1000; j++) {
+                rows.add(BenchmarkDatabase.row(0, 4, i + j));
+            }
+            manager.bulkLoad(BenchmarkDatabase.TABLE, rows);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        manager.disconnect();
+    }
+
+    @Benchmark
+    public int updateByKey() throws SQLException {
+        long id = 1 + counter++ % ROWS;
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("c0", "u" + counter);
+        data.put("c1", "u" + counter);
+        return manager.updateTestData(BenchmarkDatabase.TABLE, data, Collections.singletonMap("id", id));
+    }
+
+    @Benchmark
+    public int insertThenDelete() throws SQLException {
+        int id = manager.insertTestData(BenchmarkDatabase.TABLE, BenchmarkDatabase.row(99, 4, counter++));
+        return manager.deleteTestData(BenchmarkDatabase.TABLE, Collections.singletonMap("id", id));
+    }
+}
@@ -0,0 +1,152 @@
+package testdata;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * AsyncTestDataManager runs TestDataManager operations off the caller's thread
+ * and returns CompletableFutures. Tasks run on virtual threads when the JVM
+ * provides them (Java 21+), and a semaphore caps how many operations hit the
+ * database at once, so thousands of requests can be in flight while only a
+ * bounded number hold connections.
+ * <p>
+ * The manager must be in pooled mode. Without a pool every task thread would
+ * open its own connection, and a virtual thread never runs a second task, so
+ * none of those connections would be reused.
+ */
+public class AsyncTestDataManager implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(AsyncTestDataManager.class.getName());
+
+    private final TestDataManager manager;
+    private final Semaphore concurrency;
+    private final ExecutorService executor;
+
+    /**
+     * Creates an async facade limited to the manager's connection count
+     * @param manager Connected manager in pooled mode
+     * @throws IllegalArgumentException if the manager has no connection pool
+     */
+    public AsyncTestDataManager(TestDataManager manager) {
+        this(manager, manager.getMaxConnections());
+    }
+
+    /**
+     * Creates an async facade with an explicit concurrency limit
+     * @param manager Connected manager in pooled mode
+     * @param maxConcurrency Operations allowed to run against the database at once;
+     *                       clamped to the manager's connection count
+     * @throws IllegalArgumentException if the manager has no connection pool
+     */
+    public AsyncTestDataManager(TestDataManager manager, int maxConcurrency) {
+        if (!manager.isPooled()) {
+            throw new IllegalArgumentException("AsyncTestDataManager needs a manager in pooled mode");
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.manager = manager;
+        int limit = Math.min(maxConcurrency, manager.getMaxConnections());
+        this.concurrency = new Semaphore(limit, true);
+        this.executor = newExecutor(limit);
+    }
+
+    /**
+     * Asynchronously inserts test data
+     * @param tableName Name of the table
+     * @param data Map of column names and values
+     * @return Future completing with the generated key, or -1
+     */
+    public CompletableFuture<Integer> insertAsync(String tableName, Map<String, Object> data) {
+        return submit(() -> manager.insertTestData(tableName, data));
+    }
+
+    /**
+     * Asynchronously retrieves test data
+     * @param tableName Name of the table
+     * @param conditions Map of column names and values to filter
+     * @return Future completing with the result maps
+     */
+    public CompletableFuture<List<Map<String, Object>>> retrieveAsync(String tableName,
+                                                                      Map<String, Object> conditions) {
+        return submit(() -> manager.retrieveTestData(tableName, conditions));
+    }
+
+    /**
+     * Asynchronously updates test data
+     * @param tableName Name of the table
+     * @param updateData Map of columns to update
+     * @param conditions Map of conditions for update
+     * @return Future completing with the number of rows updated
+     */
+    public CompletableFuture<Integer> updateAsync(String tableName, Map<String, Object> updateData,
+                                                  Map<String, Object> conditions) {
+        return submit(() -> manager.updateTestData(tableName, updateData, conditions));
+    }
+
+    /**
+     * Asynchronously deletes test data
+     * @param tableName Name of the table
+     * @param conditions Map of conditions for deletion
+     * @return Future completing with the number of rows deleted
+     */
+    public CompletableFuture<Integer> deleteAsync(String tableName, Map<String, Object> conditions) {
+        return submit(() -> manager.deleteTestData(tableName, conditions));
+    }
+
+    /**
+     * Runs any manager call under the concurrency limit
+     * @param operation Work to run; SQLExceptions complete the future exceptionally
+     * @return Future completing with the operation's result
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                concurrency.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(new SQLException("Interrupted while waiting to run", e));
+                return;
+            }
+            try {
+                future.complete(operation.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                concurrency.release();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Stops accepting work; operations already submitted still run. Does not disconnect the manager.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newExecutor(int platformThreads) {
+        try {
+            // Resolved reflectively so the class still compiles and runs on Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.info("Virtual threads unavailable, using " + platformThreads + " platform threads");
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(platformThreads, r -> {
+                Thread t = new Thread(r, "AsyncTestDataManager-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package testdata;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * BulkLoader streams rows through a database's native ingest path:
+ * COPY FROM STDIN on PostgreSQL, LOAD DATA LOCAL INFILE on MySQL and
+ * CSVREAD on H2. Rows are encoded as CSV on the fly; PostgreSQL reads
+ * them straight from the encoder, the others from a spooled temp file.
+ * MySQL and H2 loads are therefore not streamed: the whole input is written
+ * to disk before the server reads any of it.
+ */
+final class BulkLoader {
+    private static final Logger LOGGER = Logger.getLogger(BulkLoader.class.getName());
+
+    // Unquoted marker every supported loader is configured to read as SQL NULL
+    private static final String NULL_TOKEN = "\\N";
+
+    private BulkLoader() {
+    }
+
+    /**
+     * Checks whether the native path can run with this driver, server and
+     * user. The MySQL and H2 checks query the server, so callers should
+     * remember the result rather than ask per load.
+     * @param dialect Dialect of the target database
+     * @param conn Connection the load would run on
+     * @return Whether a native bulk-load path exists and is permitted
+     */
+    static boolean supports(SqlDialect dialect, Connection conn) {
+        switch (dialect) {
+            case POSTGRESQL:
+                return copyApiClass(conn) != null;
+            case MYSQL:
+                return mysqlLocalInfileEnabled(conn);
+            case H2:
+                return h2CsvReadPermitted(conn);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * LOAD DATA LOCAL needs the client option on the URL and local_infile on the server
+     */
+    private static boolean mysqlLocalInfileEnabled(Connection conn) {
+        try {
+            String url = conn.getMetaData().getURL();
+            if (url == null || !url.toLowerCase(Locale.ROOT).contains("allowloadlocalinfile=true")) {
+                LOGGER.fine("LOAD DATA LOCAL not enabled: allowLoadLocalInfile=true is missing from the JDBC URL");
+                return false;
+            }
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT @@GLOBAL.local_infile")) {
+                boolean enabled = rs.next() && rs.getInt(1) == 1;
+                if (!enabled) {
+                    LOGGER.fine("LOAD DATA LOCAL not enabled: local_infile is off on the server");
+                }
+                return enabled;
+            }
+        } catch (SQLException e) {
+            LOGGER.fine("Could not check LOAD DATA LOCAL support: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * CSVREAD needs admin rights and a file system shared with the database
+     * process; reading a one-line probe file checks both
+     */
+    private static boolean h2CsvReadPermitted(Connection conn) {
+        Path probe = null;
+        try {
+            probe = Files.createTempFile("tdm-probe-", ".csv");
+            Files.writeString(probe, "1\n", StandardCharsets.UTF_8);
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM CSVREAD('" + sqlPath(probe)
+                         + "', 'X', 'charset=UTF-8')")) {
+                return rs.next() && rs.getLong(1) == 1;
+            }
+        } catch (IOException | SQLException e) {
+            LOGGER.fine("CSVREAD not usable: " + e.getMessage());
+            return false;
+        } finally {
+            if (probe != null) {
+                deleteQuietly(probe);
+            }
+        }
+    }
+
+    /**
+     * Loads rows through the native path for the dialect
+     * @param dialect Dialect of the target database; must be supported
+     * @param conn Connection to load on
+     * @param tableName Name of the table
+     * @param columns Column names matching the order of each value array
+     * @param rows Row values, consumed once
+     * @return Number of rows loaded
+     * @throws SQLException if the load fails
+     */
+    static long load(SqlDialect dialect, Connection conn, String tableName, List<String> columns,
+                     Iterator<Object[]> rows) throws SQLException {
+        switch (dialect) {
+            case POSTGRESQL:
+                return copyPostgres(conn, tableName, columns, rows);
+            case MYSQL:
+                return loadDataMysql(conn, tableName, columns, rows);
+            case H2:
+                return csvReadH2(conn, tableName, columns, rows);
+            default:
+                throw new SQLException("No bulk-load path for " + dialect);
+        }
+    }
+
+    private static long copyPostgres(Connection conn, String tableName, List<String> columns,
+                                     Iterator<Object[]> rows) throws SQLException {
+        String sql = "COPY " + tableName + " (" + String.join(",", columns)
+                + ") FROM STDIN WITH (FORMAT csv, NULL '" + NULL_TOKEN + "')";
+        Class<?> pgConnectionClass = copyApiClass(conn);
+        if (pgConnectionClass == null) {
+            throw new SQLException("PostgreSQL driver does not expose the CopyManager API");
+        }
+        try {
+            // The driver is an optional runtime dependency, so CopyManager is reached reflectively
+            Object pgConnection = conn.unwrap(pgConnectionClass);
+            Object copyApi = pgConnectionClass.getMethod("getCopyAPI").invoke(pgConnection);
+            Method copyIn = copyApi.getClass().getMethod("copyIn", String.class, Reader.class);
+            return (Long) copyIn.invoke(copyApi, sql, new CsvReader(rows, SqlDialect.POSTGRESQL));
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException("COPY into " + tableName + " failed", cause);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("PostgreSQL CopyManager is not usable", e);
+        }
+    }
+
+    private static long loadDataMysql(Connection conn, String tableName, List<String> columns,
+                                      Iterator<Object[]> rows) throws SQLException {
+        // Requires allowLoadLocalInfile=true on the JDBC URL and local_infile on the server
+        Path spool = spool(rows, SqlDialect.MYSQL);
+        try (Statement stmt = conn.createStatement()) {
+            String sql = "LOAD DATA LOCAL INFILE '" + sqlPath(spool) + "' INTO TABLE " + tableName
+                    + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"'"
+                    + " ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' (" + String.join(",", columns) + ")";
+            return stmt.executeUpdate(sql);
+        } finally {
+            deleteQuietly(spool);
+        }
+    }
+
+    private static long csvReadH2(Connection conn, String tableName, List<String> columns,
+                                  Iterator<Object[]> rows) throws SQLException {
+        // CSVREAD runs inside the database process, so this needs embedded or local-server H2.
+        // H2 unescapes backslashes in the option string, so the NULL token's backslash is doubled.
+        Path spool = spool(rows, SqlDialect.H2);
+        try (Statement stmt = conn.createStatement()) {
+            String columnList = String.join(",", columns);
+            String nullOption = NULL_TOKEN.replace("\\", "\\\\");
+            String sql = "INSERT INTO " + tableName + " (" + columnList + ") SELECT * FROM CSVREAD('"
+                    + sqlPath(spool) + "', '" + columnList + "', 'charset=UTF-8 null=" + nullOption + "')";
+            return stmt.executeUpdate(sql);
+        } finally {
+            deleteQuietly(spool);
+        }
+    }
+
+    private static Class<?> copyApiClass(Connection conn) {
+        try {
+            return Class.forName("org.postgresql.PGConnection", false, conn.getClass().getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Path spool(Iterator<Object[]> rows, SqlDialect dialect) throws SQLException {
+        try {
+            Path file = Files.createTempFile("tdm-bulk-", ".csv");
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                StringBuilder line = new StringBuilder(256);
+                while (rows.hasNext()) {
+                    line.setLength(0);
+                    encodeRow(rows.next(), dialect, line);
+                    out.append(line);
+                }
+            } catch (IOException | RuntimeException e) {
+                deleteQuietly(file);
+                throw e;
+            }
+            return file;
+        } catch (IOException e) {
+            throw new SQLException("Could not spool rows for bulk load", e);
+        }
+    }
+
+    private static String sqlPath(Path file) {
+        return file.toAbsolutePath().toString().replace("\\", "/").replace("'", "''");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warning("Could not delete bulk-load spool file " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends one CSV line. Non-null values are always quoted so they can never be
+     * mistaken for the unquoted NULL token; MySQL additionally treats backslash as
+     * an escape character.
+     */
+    static void encodeRow(Object[] values, SqlDialect dialect, StringBuilder line) {
+        boolean backslashEscapes = dialect == SqlDialect.MYSQL;
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                line.append(NULL_TOKEN);
+                continue;
+            }
+            String text = toText(value, dialect);
+            line.append('"');
+            for (int c = 0; c < text.length(); c++) {
+                char ch = text.charAt(c);
+                if (ch == '"') {
+                    line.append("\"\"");
+                } else if (ch == '\\' && backslashEscapes) {
+                    line.append("\\\\");
+                } else {
+                    line.append(ch);
+                }
+            }
+            line.append('"');
+        }
+        line.append('\n');
+    }
+
+    private static String toText(Object value, SqlDialect dialect) {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? "1" : "0";
+        }
+        if (value instanceof byte[]) {
+            if (dialect == SqlDialect.MYSQL) {
+                throw new IllegalArgumentException("Binary values cannot be bulk loaded through LOAD DATA");
+            }
+            // bytea input wants a \x prefix; H2 reads plain hex into binary columns
+            byte[] bytes = (byte[]) value;
+            StringBuilder hex = new StringBuilder(2 + bytes.length * 2);
+            if (dialect == SqlDialect.POSTGRESQL) {
+                hex.append("\\x");
+            }
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        }
+        if (value instanceof Calendar) {
+            return new Timestamp(((Calendar) value).getTimeInMillis()).toString();
+        }
+        if (value instanceof java.util.Date && !(value instanceof java.sql.Date)
+                && !(value instanceof Time) && !(value instanceof Timestamp)) {
+            // java.util.Date prints as "Tue Oct 17 ...", which no loader accepts
+            return new Timestamp(((java.util.Date) value).getTime()).toString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * Reader that encodes rows to CSV only as the consumer asks for characters
+     */
+    private static final class CsvReader extends Reader {
+        private final Iterator<Object[]> rows;
+        private final SqlDialect dialect;
+        private final StringBuilder buffer = new StringBuilder(8192);
+        private int position;
+
+        CsvReader(Iterator<Object[]> rows, SqlDialect dialect) {
+            this.rows = rows;
+            this.dialect = dialect;
+        }
+
+        @Override
+        public int read(char[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (position == buffer.length()) {
+                buffer.setLength(0);
+                position = 0;
+                // Refill with whole rows until there is at least a buffer's worth or input runs out
+                while (buffer.length() < 8192 && rows.hasNext()) {
+                    encodeRow(rows.next(), dialect, buffer);
+                }
+                if (buffer.length() == 0) {
+                    return -1;
+                }
+            }
+            int count = Math.min(length, buffer.length() - position);
+            buffer.getChars(position, position + count, target, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package testdata;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * ConnectionPool keeps a bounded set of physical JDBC connections that
+ * TestDataManager borrows and returns around each database operation.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    /**
+     * Sizing and timeout settings for a ConnectionPool
+     */
+    public static class Config {
+        private int minSize = 1;
+        private int maxSize = 10;
+        private long idleTimeoutMillis = TimeUnit.MINUTES.toMillis(5);
+        private long maxWaitMillis = TimeUnit.SECONDS.toMillis(30);
+        private int validationTimeoutSeconds = 2;
+        private boolean validateOnBorrow = true;
+
+        /**
+         * @param minSize Number of connections kept open even when idle
+         * @return this config
+         */
+        public Config minSize(int minSize) {
+            if (minSize < 0) {
+                throw new IllegalArgumentException("minSize must not be negative");
+            }
+            this.minSize = minSize;
+            return this;
+        }
+
+        /**
+         * @param maxSize Upper bound on open connections
+         * @return this config
+         */
+        public Config maxSize(int maxSize) {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("maxSize must be at least 1");
+            }
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * @param idleTimeoutMillis Idle time after which surplus connections are closed
+         * @return this config
+         */
+        public Config idleTimeoutMillis(long idleTimeoutMillis) {
+            if (idleTimeoutMillis < 0) {
+                throw new IllegalArgumentException("idleTimeoutMillis must not be negative");
+            }
+            this.idleTimeoutMillis = idleTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * @param maxWaitMillis How long a borrower waits for a free connection
+         * @return this config
+         */
+        public Config maxWaitMillis(long maxWaitMillis) {
+            if (maxWaitMillis < 0) {
+                throw new IllegalArgumentException("maxWaitMillis must not be negative");
+            }
+            this.maxWaitMillis = maxWaitMillis;
+            return this;
+        }
+
+        /**
+         * @param validationTimeoutSeconds Timeout passed to Connection.isValid on borrow
+         * @return this config
+         */
+        public Config validationTimeoutSeconds(int validationTimeoutSeconds) {
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+            return this;
+        }
+
+        /**
+         * @param validateOnBorrow Whether idle connections are checked before being handed out
+         * @return this config
+         */
+        public Config validateOnBorrow(boolean validateOnBorrow) {
+            this.validateOnBorrow = validateOnBorrow;
+            return this;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+    }
+
+    private static class IdleConnection {
+        final Connection connection;
+        final long idleSinceNanos;
+
+        IdleConnection(Connection connection, long idleSinceNanos) {
+            this.connection = connection;
+            this.idleSinceNanos = idleSinceNanos;
+        }
+    }
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Config config;
+
+    private final ConcurrentLinkedDeque<IdleConnection> idle = new ConcurrentLinkedDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final ScheduledExecutorService evictor;
+    private volatile boolean closed;
+    private volatile Consumer<Connection> closeListener;
+
+    /**
+     * Creates the pool and opens the configured minimum number of connections
+     * @param url Database connection URL
+     * @param username Database username
+     * @param password Database password
+     * @param config Pool sizing and timeouts
+     * @throws SQLException if the initial connections cannot be opened
+     */
+    public ConnectionPool(String url, String username, String password, Config config) throws SQLException {
+        if (config.minSize > config.maxSize) {
+            throw new IllegalArgumentException("minSize must not exceed maxSize");
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize, true);
+
+        try {
+            fillToMinimum();
+        } catch (SQLException e) {
+            closeIdle();
+            throw e;
+        }
+
+        long period = Math.max(1000L, config.idleTimeoutMillis / 2);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ConnectionPool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured maximum for one to become free
+     * @return A validated connection that must be handed back through release
+     * @throws SQLException if the pool is closed, the wait times out, or a connection cannot be opened
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(config.maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + config.maxWaitMillis
+                        + " ms waiting for a pooled connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a pooled connection", e);
+        }
+
+        try {
+            IdleConnection candidate;
+            while ((candidate = idle.pollFirst()) != null) {
+                if (isUsable(candidate.connection)) {
+                    return candidate.connection;
+                }
+                discard(candidate.connection);
+            }
+            return open();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool
+     * @param connection Connection obtained from borrow
+     */
+    public void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            if (closed || connection.isClosed()) {
+                discard(connection);
+                return;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            IdleConnection entry = new IdleConnection(connection, System.nanoTime());
+            idle.offerFirst(entry);
+            // close() may have drained the idle deque between the check above and the offer
+            if (closed && idle.removeFirstOccurrence(entry)) {
+                discard(connection);
+            }
+        } catch (SQLException e) {
+            LOGGER.warning("Discarding pooled connection after failed reset: " + e.getMessage());
+            discard(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Registers a callback run just before the pool closes a physical connection,
+     * so per-connection state such as cached statements can be dropped
+     * @param closeListener Callback receiving the connection being closed
+     */
+    public void setCloseListener(Consumer<Connection> closeListener) {
+        this.closeListener = closeListener;
+    }
+
+    /**
+     * @return Number of physical connections currently open
+     */
+    public int getOpenCount() {
+        return openCount.get();
+    }
+
+    /**
+     * @return Number of open connections not currently borrowed
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Closes idle connections and stops the evictor. Borrowed connections are
+     * closed as they are released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        closeIdle();
+    }
+
+    private boolean isUsable(Connection connection) {
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            return !config.validateOnBorrow || connection.isValid(config.validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        openCount.incrementAndGet();
+        return connection;
+    }
+
+    private void discard(Connection connection) {
+        openCount.decrementAndGet();
+        Consumer<Connection> listener = closeListener;
+        if (listener != null) {
+            listener.accept(connection);
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOGGER.warning("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void fillToMinimum() throws SQLException {
+        while (!closed && openCount.get() < config.minSize) {
+            // Opening holds a permit like a borrow, so the pool never exceeds maxSize
+            if (!permits.tryAcquire()) {
+                return;
+            }
+            try {
+                idle.offerLast(new IdleConnection(open(), System.nanoTime()));
+            } finally {
+                permits.release();
+            }
+        }
+        if (closed) {
+            closeIdle();
+        }
+    }
+
+    private void closeIdle() {
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry.connection);
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(config.idleTimeoutMillis);
+        // Oldest idle connections sit at the tail because release pushes to the head
+        while (openCount.get() > config.minSize) {
+            IdleConnection oldest = idle.peekLast();
+            if (oldest == null || oldest.idleSinceNanos - cutoff > 0) {
+                break;
+            }
+            if (idle.removeLastOccurrence(oldest)) {
+                discard(oldest.connection);
+            }
+        }
+        try {
+            fillToMinimum();
+        } catch (SQLException e) {
+            LOGGER.warning("Could not restore minimum pool size: " + e.getMessage());
+        }
+    }
+}
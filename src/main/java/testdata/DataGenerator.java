@@ -0,0 +1,576 @@
+package testdata;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * DataGenerator produces synthetic rows for one table and streams them
+ * straight into the bulk or batch insert path as value arrays, without a map
+ * per row.
+ * <p>
+ * Every value is derived from a hash of the seed, the row number and the
+ * column name, so the same seed always yields the same table no matter how
+ * the rows are partitioned across threads. Columns without an explicit
+ * generator get a default chosen from their SQL type; foreign-key columns
+ * default to the keys already present in the parent table; auto-increment
+ * columns are left to the database. Numeric primary-key and unique columns
+ * default to a sequence starting after the column's current maximum, so they
+ * depend on the rows already in the table; other key types need an explicit
+ * generator unless they are long enough for random text.
+ * <pre>
+ * new DataGenerator(manager, "users", 42)
+ *     .column("id", DataGenerator.sequence(1, 1))
+ *     .column("email", DataGenerator.pattern("user########@example.com"))
+ *     .column("age", DataGenerator.nullable(DataGenerator.range(18, 90), 0.1))
+ *     .generate(1_000_000, 8);
+ * </pre>
+ */
+public class DataGenerator {
+    private static final Logger LOGGER = Logger.getLogger(DataGenerator.class.getName());
+
+    /**
+     * Produces one column value from the row number and a per-cell random word
+     */
+    @FunctionalInterface
+    public interface ColumnGenerator {
+        /**
+         * @param row Zero-based row number within the generated table
+         * @param random 64 well-mixed bits unique to this row and column
+         * @return Value to insert, or null
+         */
+        Object generate(long row, long random);
+    }
+
+    private static final String ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyz0123456789";
+    private static final long DAY_2000 = 10957;
+    private static final long DAYS_IN_30_YEARS = 10958;
+
+    private final TestDataManager manager;
+    private final String tableName;
+    private final long seed;
+    private final Map<String, ColumnGenerator> specs = new LinkedHashMap<>();
+    private final Set<String> excluded = new HashSet<>();
+    private boolean useBulkLoad = true;
+
+    /**
+     * @param manager Connected manager the rows are written through
+     * @param tableName Table to fill
+     * @param seed Seed that fixes every generated value
+     */
+    public DataGenerator(TestDataManager manager, String tableName, long seed) {
+        this.manager = manager;
+        this.tableName = tableName;
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the generator for a column, replacing the type-based default.
+     * Auto-increment columns given a generator are included.
+     * @param column Column name, matched case-insensitively
+     * @param generator Value generator
+     * @return This generator
+     */
+    public DataGenerator column(String column, ColumnGenerator generator) {
+        String key = column.toUpperCase(Locale.ROOT);
+        specs.put(key, generator);
+        excluded.remove(key);
+        return this;
+    }
+
+    /**
+     * Leaves a column out of the insert so the database default applies
+     * @param column Column name, matched case-insensitively
+     * @return This generator
+     */
+    public DataGenerator exclude(String column) {
+        String key = column.toUpperCase(Locale.ROOT);
+        specs.remove(key);
+        excluded.add(key);
+        return this;
+    }
+
+    /**
+     * @param useBulkLoad Whether to write through bulkLoad (the default) or plain batched inserts
+     * @return This generator
+     */
+    public DataGenerator setBulkLoad(boolean useBulkLoad) {
+        this.useBulkLoad = useBulkLoad;
+        return this;
+    }
+
+    /**
+     * Generates and inserts rows on the calling thread
+     * @param rowCount Number of rows
+     * @return Number of rows inserted
+     * @throws SQLException if metadata cannot be read or an insert fails
+     */
+    public long generate(long rowCount) throws SQLException {
+        return generate(rowCount, 1);
+    }
+
+    /**
+     * Generates and inserts rows in contiguous partitions, one per connection.
+     * The rows are identical to those of a serial run with the same seed.
+     * Inside an isolated scope all rows are written on the calling thread.
+     * @param rowCount Number of rows
+     * @param parallelism Partitions written at once; clamped to the manager's connection count
+     * @return Number of rows inserted
+     * @throws SQLException if metadata cannot be read or an insert fails
+     */
+    public long generate(long rowCount, int parallelism) throws SQLException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        Plan plan = plan();
+        int partitions = (int) Math.max(1, Math.min(Math.min(parallelism, manager.getMaxConnections()), rowCount));
+        if (partitions == 1 || manager.inIsolatedScope()) {
+            return write(plan, 0, rowCount);
+        }
+
+        LongAdder written = new LongAdder();
+        List<Future<?>> futures = new ArrayList<>(partitions);
+        ExecutorService executor = ParallelTasks.newExecutor("DataGenerator", partitions);
+        try {
+            for (int p = 0; p < partitions; p++) {
+                long from = rowCount * p / partitions;
+                long to = rowCount * (p + 1) / partitions;
+                futures.add(executor.submit(() -> {
+                    written.add(write(plan, from, to));
+                    return null;
+                }));
+            }
+            ParallelTasks.awaitAll(futures, "data generation");
+        } catch (SQLException e) {
+            LOGGER.severe("Error generating test data for " + tableName + ": " + e.getMessage());
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+        return written.sum();
+    }
+
+    /**
+     * @param from First row number, inclusive
+     * @param to Last row number, exclusive
+     * @return Generated rows without inserting them, for custom sinks
+     * @throws SQLException if metadata cannot be read
+     */
+    public Iterator<Object[]> rows(long from, long to) throws SQLException {
+        return plan().rows(from, to);
+    }
+
+    /**
+     * @return Columns each generated row fills, in value order
+     * @throws SQLException if metadata cannot be read
+     */
+    public List<String> getColumns() throws SQLException {
+        return plan().columns;
+    }
+
+    private long write(Plan plan, long from, long to) throws SQLException {
+        if (useBulkLoad) {
+            return manager.bulkLoad(tableName, plan.columns, plan.rows(from, to));
+        }
+        Connection conn = manager.acquireConnection();
+        try {
+            return manager.insertRowsInChunks(conn, tableName, plan.columns, plan.rows(from, to));
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    /**
+     * Resolves the column list and a generator per column from the table metadata
+     */
+    private Plan plan() throws SQLException {
+        List<TableMetadata.Column> tableColumns;
+        Map<String, TableMetadata.ForeignKey> foreignKeys = new HashMap<>();
+        Set<String> uniqueColumns = new HashSet<>();
+        Connection conn = manager.acquireConnection();
+        try {
+            tableColumns = TableMetadata.columns(conn, tableName);
+            for (TableMetadata.ForeignKey key : TableMetadata.importedKeys(conn, tableName)) {
+                foreignKeys.put(key.column.toUpperCase(Locale.ROOT), key);
+            }
+            // Every column of a composite key gets a sequence too, which keeps the tuples distinct
+            for (String column : TableMetadata.primaryKey(conn, tableName)) {
+                uniqueColumns.add(column.toUpperCase(Locale.ROOT));
+            }
+            for (String column : TableMetadata.uniqueColumns(conn, tableName)) {
+                uniqueColumns.add(column.toUpperCase(Locale.ROOT));
+            }
+        } finally {
+            // Parent keys are read on a connection of their own, so give this one back first
+            manager.releaseConnection(conn);
+        }
+
+        Set<String> matched = new HashSet<>();
+        List<String> columns = new ArrayList<>();
+        List<ColumnGenerator> generators = new ArrayList<>();
+        long[] salts = new long[tableColumns.size()];
+        for (TableMetadata.Column column : tableColumns) {
+            String key = column.name.toUpperCase(Locale.ROOT);
+            ColumnGenerator generator = specs.get(key);
+            if (generator != null) {
+                matched.add(key);
+            } else if (excluded.contains(key) || column.autoIncrement) {
+                continue;
+            } else if (foreignKeys.containsKey(key)) {
+                generator = parentKeys(column, foreignKeys.get(key), uniqueColumns.contains(key));
+            } else if (uniqueColumns.contains(key)) {
+                generator = uniqueDefaultFor(column);
+            } else {
+                generator = defaultFor(column);
+            }
+            // Salting by name keeps a column's values stable when other columns are added or excluded
+            salts[columns.size()] = mix(key.hashCode() * 0xC2B2AE3D27D4EB4FL);
+            columns.add(column.name);
+            generators.add(generator);
+        }
+
+        for (String spec : specs.keySet()) {
+            if (!matched.contains(spec)) {
+                throw new IllegalArgumentException("Table " + tableName + " has no column " + spec);
+            }
+        }
+        return new Plan(Collections.unmodifiableList(columns), generators.toArray(new ColumnGenerator[0]),
+                Arrays.copyOf(salts, columns.size()), seed);
+    }
+
+    private ColumnGenerator parentKeys(TableMetadata.Column column, TableMetadata.ForeignKey key, boolean unique)
+            throws SQLException {
+        if (key.parentTable.equalsIgnoreCase(tableName)) {
+            if (!column.nullable) {
+                throw new SQLException("Self-referencing column " + column.name + " needs an explicit generator");
+            }
+            return (row, random) -> null;
+        }
+        // Ordered so the same seed picks the same parents whatever the table's physical order
+        String sql = "SELECT DISTINCT " + key.parentColumn + " FROM " + key.parentTable
+                + " ORDER BY " + key.parentColumn;
+        List<Object> values;
+        try (Stream<Object> keys = manager.streamQuery(sql, Collections.emptyList(), 10_000,
+                metaData -> rs -> rs.getObject(1))) {
+            values = keys.collect(Collectors.toList());
+        } catch (UncheckedSQLException e) {
+            throw e.getCause();
+        }
+        if (values.isEmpty()) {
+            if (!column.nullable) {
+                throw new SQLException("Parent table " + key.parentTable + " has no rows for " + column.name);
+            }
+            return (row, random) -> null;
+        }
+        if (unique) {
+            // One child per parent, in parent order, for one-to-one tables
+            return (row, random) -> values.get((int) (row % values.size()));
+        }
+        return oneOf(values);
+    }
+
+    /**
+     * Default for primary-key and unique columns, where random values would collide
+     */
+    private ColumnGenerator uniqueDefaultFor(TableMetadata.Column column) throws SQLException {
+        switch (column.sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER: {
+                long start = nextKey(column);
+                return (row, random) -> Math.toIntExact(start + row);
+            }
+            case Types.BIGINT: {
+                long start = nextKey(column);
+                return (row, random) -> start + row;
+            }
+            case Types.DECIMAL:
+            case Types.NUMERIC: {
+                long start = nextKey(column);
+                return (row, random) -> BigDecimal.valueOf(start + row);
+            }
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+                // Twelve random alphanumerics collide too rarely to matter; shorter keys would not
+                if (column.size <= 0 || column.size >= 12) {
+                    return defaultFor(column);
+                }
+                break;
+            default:
+        }
+        throw new SQLException("Key column " + column.name + " of " + tableName + " needs an explicit generator");
+    }
+
+    /**
+     * @return One more than the column's current maximum, or 1 for an empty table
+     */
+    private long nextKey(TableMetadata.Column column) throws SQLException {
+        String sql = "SELECT MAX(" + column.name + ") FROM " + tableName;
+        try (Stream<Object> max = manager.streamQuery(sql, Collections.emptyList(), 1,
+                metaData -> rs -> rs.getObject(1))) {
+            // MAX of an empty table is a single NULL, which findFirst would reject
+            List<Object> values = max.collect(Collectors.toList());
+            Object value = values.isEmpty() ? null : values.get(0);
+            return value == null ? 1 : ((Number) value).longValue() + 1;
+        } catch (UncheckedSQLException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static ColumnGenerator defaultFor(TableMetadata.Column column) {
+        switch (column.sqlType) {
+            case Types.TINYINT:
+                return (row, random) -> (int) Math.floorMod(random, 128L);
+            case Types.SMALLINT:
+                return (row, random) -> (int) Math.floorMod(random, 32768L);
+            case Types.INTEGER:
+                return (row, random) -> (int) Math.floorMod(random, 1_000_000L);
+            case Types.BIGINT:
+                return range(0, 1_000_000_000L);
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return range(0.0, 1000.0);
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return (row, random) -> BigDecimal.valueOf(Math.floorMod(random, 10_000_000L), 2);
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return (row, random) -> random < 0;
+            case Types.DATE:
+                return (row, random) -> Date.valueOf(
+                        LocalDate.ofEpochDay(DAY_2000 + Math.floorMod(random, DAYS_IN_30_YEARS)));
+            case Types.TIME:
+                return (row, random) -> new Time(Math.floorMod(random, 86_400L) * 1000);
+            case Types.TIMESTAMP:
+                return (row, random) -> new Timestamp(
+                        (DAY_2000 + Math.floorMod(random, DAYS_IN_30_YEARS)) * 86_400_000L
+                                + Math.floorMod(random >> 20, 86_400_000L));
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.CLOB: {
+                int length = column.size > 0 ? Math.min(column.size, 12) : 12;
+                return pattern("*".repeat(length));
+            }
+            default:
+                if (column.nullable) {
+                    return (row, random) -> null;
+                }
+                return pattern("************");
+        }
+    }
+
+    /**
+     * @param start First value
+     * @param step Increment per row
+     * @return start, start + step, ... by row number, as Long
+     */
+    public static ColumnGenerator sequence(long start, long step) {
+        return (row, random) -> start + row * step;
+    }
+
+    /**
+     * @param min Smallest value, inclusive
+     * @param max Largest value, inclusive
+     * @return Uniformly distributed Long values
+     */
+    public static ColumnGenerator range(long min, long max) {
+        if (max < min) {
+            throw new IllegalArgumentException("max must not be below min");
+        }
+        long span = max - min + 1;
+        if (span <= 0) {
+            return (row, random) -> random;
+        }
+        return (row, random) -> min + Math.floorMod(random, span);
+    }
+
+    /**
+     * @param min Smallest value, inclusive
+     * @param max Largest value, exclusive
+     * @return Uniformly distributed Double values
+     */
+    public static ColumnGenerator range(double min, double max) {
+        double span = max - min;
+        return (row, random) -> min + unit(random) * span;
+    }
+
+    /**
+     * @param mean Mean of the distribution
+     * @param stdDev Standard deviation of the distribution
+     * @return Normally distributed Double values
+     */
+    public static ColumnGenerator gaussian(double mean, double stdDev) {
+        return (row, random) -> {
+            // Box-Muller; 1 - unit keeps the logarithm's argument above zero
+            double u1 = 1.0 - unit(random);
+            double u2 = unit(mix(random));
+            return mean + stdDev * Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+        };
+    }
+
+    /**
+     * Fills a template: '#' becomes a digit, '?' a lower-case letter, '*' a
+     * letter or digit, and a backslash makes the next character literal
+     * @param template Pattern such as "user######@example.com"
+     * @return String values of the template's shape
+     */
+    public static ColumnGenerator pattern(String template) {
+        int length = 0;
+        char[] chars = new char[template.length()];
+        boolean[] literal = new boolean[template.length()];
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == '\\' && i + 1 < template.length()) {
+                c = template.charAt(++i);
+                literal[length] = true;
+            } else {
+                literal[length] = c != '#' && c != '?' && c != '*';
+            }
+            chars[length++] = c;
+        }
+        int size = length;
+        return (row, random) -> {
+            char[] out = new char[size];
+            long bits = random;
+            for (int i = 0; i < size; i++) {
+                if (literal[i]) {
+                    out[i] = chars[i];
+                    continue;
+                }
+                bits = mix(bits);
+                switch (chars[i]) {
+                    case '#':
+                        out[i] = (char) ('0' + Math.floorMod(bits, 10L));
+                        break;
+                    case '?':
+                        out[i] = (char) ('a' + Math.floorMod(bits, 26L));
+                        break;
+                    default:
+                        out[i] = ALPHANUMERIC.charAt((int) Math.floorMod(bits, (long) ALPHANUMERIC.length()));
+                }
+            }
+            return new String(out);
+        };
+    }
+
+    /**
+     * @param values Candidates, such as generated parent keys from a DependencySeeder run
+     * @return One of the candidates per row, chosen uniformly
+     */
+    public static ColumnGenerator oneOf(List<?> values) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("values must not be empty");
+        }
+        Object[] choices = values.toArray();
+        return (row, random) -> choices[(int) Math.floorMod(random, (long) choices.length)];
+    }
+
+    /**
+     * @see #oneOf(List)
+     */
+    public static ColumnGenerator oneOf(Object... values) {
+        return oneOf(List.of(values));
+    }
+
+    /**
+     * @param generator Generator for non-null values
+     * @param nullFraction Share of rows that get NULL, between 0 and 1
+     * @return Generator that yields NULL for roughly the given share of rows
+     */
+    public static ColumnGenerator nullable(ColumnGenerator generator, double nullFraction) {
+        if (nullFraction < 0 || nullFraction > 1) {
+            throw new IllegalArgumentException("nullFraction must be between 0 and 1");
+        }
+        return (row, random) -> {
+            long decider = mix(random ^ 0x5851F42D4C957F2DL);
+            return unit(decider) < nullFraction ? null : generator.generate(row, random);
+        };
+    }
+
+    /**
+     * @return Uniform double in [0, 1) from the top 53 bits
+     */
+    private static double unit(long random) {
+        return (random >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * SplitMix64 finaliser; spreads any input over all 64 bits
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Resolved columns and generators, shared read-only by the partitions
+     */
+    private static final class Plan {
+        final List<String> columns;
+        final ColumnGenerator[] generators;
+        final long[] salts;
+        final long seed;
+
+        Plan(List<String> columns, ColumnGenerator[] generators, long[] salts, long seed) {
+            this.columns = columns;
+            this.generators = generators;
+            this.salts = salts;
+            this.seed = seed;
+        }
+
+        Iterator<Object[]> rows(long from, long to) {
+            return new Iterator<Object[]>() {
+                private long row = from;
+
+                @Override
+                public boolean hasNext() {
+                    return row < to;
+                }
+
+                @Override
+                public Object[] next() {
+                    if (row >= to) {
+                        throw new NoSuchElementException();
+                    }
+                    long rowHash = mix(seed + row * 0x9E3779B97F4A7C15L);
+                    Object[] values = new Object[generators.length];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = generators[i].generate(row, mix(rowHash ^ salts[i]));
+                    }
+                    row++;
+                    return values;
+                }
+            };
+        }
+    }
+}
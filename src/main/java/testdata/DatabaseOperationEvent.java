@@ -0,0 +1,46 @@
+package testdata;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event for one TestDataManager operation, so database stalls
+ * appear on the same timeline as GC, lock and thread events. The event's
+ * duration is the whole call; connectionWait and execution split it. When
+ * the event is disabled, OperationTrace does not create one at all.
+ */
+@Name("testdata.DatabaseOperation")
+@Label("Database Operation")
+@Category({"Test Data", "Database"})
+@Description("A TestDataManager call, including the wait for a connection")
+@StackTrace(false)
+class DatabaseOperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Table")
+    String table;
+
+    @Label("Parameter Count")
+    int parameterCount;
+
+    @Label("Row Count")
+    long rowCount;
+
+    @Label("Connection Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long connectionWait;
+
+    @Label("Execution Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long execution;
+
+    @Label("Failed")
+    boolean failed;
+}
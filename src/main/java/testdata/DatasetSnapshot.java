@@ -0,0 +1,515 @@
+package testdata;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * DatasetSnapshot saves table contents to a compact binary file and loads them
+ * back, so a baseline dataset is built once and restored in seconds instead of
+ * being regenerated before every suite.
+ * <p>
+ * The file is GZIP-compressed. Each table section holds the column names and
+ * java.sql.Types codes, then one typed record per row, then the row count and a
+ * CRC32 of the section's row bytes. Rows are streamed in both directions, and
+ * each table is restored in one transaction that is rolled back if its
+ * checksum or row count does not match. Restoring does not reset sequences or
+ * identity generators.
+ */
+public class DatasetSnapshot {
+    private static final Logger LOGGER = Logger.getLogger(DatasetSnapshot.class.getName());
+
+    private static final byte[] MAGIC = "TDMSNAP".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 2;
+
+    private static final byte END = 0;
+    private static final byte MORE = 1;
+    private static final byte NULL = 0;
+    private static final byte VALUE = 1;
+
+    // Value encodings, chosen per column from its SQL type
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int FLOAT = 3;
+    private static final int DOUBLE = 4;
+    private static final int BOOLEAN = 5;
+    private static final int DECIMAL = 6;
+    private static final int DATE = 7;
+    private static final int TIME = 8;
+    private static final int TIMESTAMP = 9;
+    private static final int BYTES = 10;
+    private static final int STRING = 11;
+    private static final int TIMESTAMP_TZ = 12;
+
+    private final TestDataManager manager;
+    private int fetchSize = 5000;
+
+    /**
+     * @param manager Connected manager used for reading and restoring
+     */
+    public DatasetSnapshot(TestDataManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * @param fetchSize Rows fetched per round trip while taking a snapshot
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the contents of the given tables to a snapshot file
+     * @param tables Tables to save, in the order they should be restored
+     * @param file Target file; overwritten if it exists
+     * @return Number of rows written
+     * @throws SQLException if a table cannot be read
+     * @throws IOException if the file cannot be written
+     */
+    public long snapshot(List<String> tables, Path file) throws SQLException, IOException {
+        long total = 0;
+        try (OutputStream fileOut = Files.newOutputStream(file);
+             GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(fileOut, 1 << 16), 1 << 16) {
+                 {
+                     // Snapshots are written often and restored often; favour speed over ratio
+                     def.setLevel(Deflater.BEST_SPEED);
+                 }
+             }) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(gzip, 1 << 16), crc));
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+
+            for (String table : tables) {
+                total += writeTable(table, out, crc);
+            }
+            out.writeByte(END);
+            out.flush();
+        }
+        LOGGER.info("Wrote " + total + " rows from " + tables.size() + " tables to " + file);
+        return total;
+    }
+
+    /**
+     * Restores every table in a snapshot file with batched inserts. The tables
+     * must exist and should be empty.
+     * @param file Snapshot file written by snapshot
+     * @return Number of rows restored
+     * @throws SQLException if rows cannot be inserted
+     * @throws IOException if the file is unreadable, truncated or fails its checksum
+     */
+    public long restore(Path file) throws SQLException, IOException {
+        long total = 0;
+        try (InputStream fileIn = Files.newInputStream(file);
+             GZIPInputStream gzip = new GZIPInputStream(new BufferedInputStream(fileIn, 1 << 16), 1 << 16)) {
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(
+                    new CheckedInputStream(new BufferedInputStream(gzip, 1 << 16), crc));
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(file + " is not a dataset snapshot");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+
+            while (in.readByte() == MORE) {
+                total += restoreTable(in, crc);
+            }
+        }
+        LOGGER.info("Restored " + total + " rows from " + file);
+        return total;
+    }
+
+    private long writeTable(String table, DataOutputStream out, CRC32 crc) throws SQLException, IOException {
+        long[] rows = {0};
+        try (Stream<Boolean> written = manager.streamQuery("SELECT * FROM " + table, Collections.emptyList(),
+                fetchSize, metaData -> {
+                    int[] encodings = writeHeader(table, metaData, out);
+                    crc.reset();
+                    return rs -> {
+                        writeRow(rs, encodings, out);
+                        rows[0]++;
+                        return Boolean.TRUE;
+                    };
+                })) {
+            written.forEach(row -> { });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (UncheckedSQLException e) {
+            throw e.getCause();
+        }
+
+        // The checksum covers the END marker, which restore reads through the checked stream,
+        // but not the count and checksum after it
+        out.writeByte(END);
+        long checksum = crc.getValue();
+        out.writeLong(rows[0]);
+        out.writeLong(checksum);
+        return rows[0];
+    }
+
+    private static int[] writeHeader(String table, ResultSetMetaData metaData, DataOutputStream out)
+            throws SQLException {
+        try {
+            int columnCount = metaData.getColumnCount();
+            int[] encodings = new int[columnCount];
+            out.writeByte(MORE);
+            out.writeUTF(table);
+            out.writeInt(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                int sqlType = metaData.getColumnType(i + 1);
+                out.writeUTF(metaData.getColumnName(i + 1));
+                out.writeInt(sqlType);
+                encodings[i] = encodingFor(sqlType);
+            }
+            return encodings;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeRow(ResultSet rs, int[] encodings, DataOutputStream out) throws SQLException {
+        try {
+            out.writeByte(MORE);
+            for (int i = 0; i < encodings.length; i++) {
+                int column = i + 1;
+                switch (encodings[i]) {
+                    case INT: {
+                        int value = rs.getInt(column);
+                        if (writeNull(rs, out)) {
+                            out.writeInt(value);
+                        }
+                        break;
+                    }
+                    case LONG: {
+                        long value = rs.getLong(column);
+                        if (writeNull(rs, out)) {
+                            out.writeLong(value);
+                        }
+                        break;
+                    }
+                    case FLOAT: {
+                        float value = rs.getFloat(column);
+                        if (writeNull(rs, out)) {
+                            out.writeFloat(value);
+                        }
+                        break;
+                    }
+                    case DOUBLE: {
+                        double value = rs.getDouble(column);
+                        if (writeNull(rs, out)) {
+                            out.writeDouble(value);
+                        }
+                        break;
+                    }
+                    case BOOLEAN: {
+                        boolean value = rs.getBoolean(column);
+                        if (writeNull(rs, out)) {
+                            out.writeBoolean(value);
+                        }
+                        break;
+                    }
+                    case DECIMAL: {
+                        BigDecimal value = rs.getBigDecimal(column);
+                        if (writePresent(value, out)) {
+                            writeString(value.toString(), out);
+                        }
+                        break;
+                    }
+                    case DATE: {
+                        Date value = rs.getDate(column);
+                        if (writePresent(value, out)) {
+                            out.writeLong(value.toLocalDate().toEpochDay());
+                        }
+                        break;
+                    }
+                    case TIME: {
+                        Time value = rs.getTime(column);
+                        if (writePresent(value, out)) {
+                            out.writeLong(value.toLocalTime().toNanoOfDay());
+                        }
+                        break;
+                    }
+                    case TIMESTAMP: {
+                        Timestamp value = rs.getTimestamp(column);
+                        if (writePresent(value, out)) {
+                            out.writeLong(value.getTime());
+                            out.writeInt(value.getNanos());
+                        }
+                        break;
+                    }
+                    case TIMESTAMP_TZ: {
+                        OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+                        if (writePresent(value, out)) {
+                            out.writeLong(value.toEpochSecond());
+                            out.writeInt(value.getNano());
+                            out.writeInt(value.getOffset().getTotalSeconds());
+                        }
+                        break;
+                    }
+                    case BYTES: {
+                        byte[] value = rs.getBytes(column);
+                        if (writePresent(value, out)) {
+                            out.writeInt(value.length);
+                            out.write(value);
+                        }
+                        break;
+                    }
+                    default: {
+                        String value = rs.getString(column);
+                        if (writePresent(value, out)) {
+                            writeString(value, out);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean writeNull(ResultSet rs, DataOutputStream out) throws SQLException, IOException {
+        boolean present = !rs.wasNull();
+        out.writeByte(present ? VALUE : NULL);
+        return present;
+    }
+
+    private static boolean writePresent(Object value, DataOutputStream out) throws IOException {
+        out.writeByte(value != null ? VALUE : NULL);
+        return value != null;
+    }
+
+    private static void writeString(String value, DataOutputStream out) throws IOException {
+        // writeUTF caps strings at 64 KB, so use a length-prefixed UTF-8 form instead
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private long restoreTable(DataInputStream in, CRC32 crc) throws SQLException, IOException {
+        String table = in.readUTF();
+        int columnCount = in.readInt();
+        List<String> columns = new ArrayList<>(columnCount);
+        int[] encodings = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns.add(in.readUTF());
+            encodings[i] = encodingFor(in.readInt());
+        }
+        crc.reset();
+
+        RowDecoder rows = new RowDecoder(in, encodings);
+        Connection conn = manager.acquireConnection();
+        boolean manageTransaction = !manager.isScoped(conn);
+        boolean autoCommit = true;
+        try {
+            if (manageTransaction) {
+                autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+            }
+            long inserted;
+            try {
+                inserted = manager.insertRows(conn, table, columns, rows, null, false);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            long checksum = crc.getValue();
+            long expectedRows = in.readLong();
+            long expectedChecksum = in.readLong();
+            if (inserted != expectedRows || checksum != expectedChecksum) {
+                throw new IOException("Snapshot section for " + table + " is corrupt: "
+                        + inserted + "/" + expectedRows + " rows, checksum "
+                        + Long.toHexString(checksum) + "/" + Long.toHexString(expectedChecksum));
+            }
+            if (manageTransaction) {
+                conn.commit();
+            }
+            return inserted;
+        } catch (SQLException | IOException | RuntimeException e) {
+            LOGGER.severe("Error restoring " + table + " from snapshot: " + e.getMessage());
+            if (manageTransaction) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+            }
+            throw e;
+        } finally {
+            if (manageTransaction) {
+                conn.setAutoCommit(autoCommit);
+            }
+            manager.releaseConnection(conn);
+            manager.tableWritten(table);
+        }
+    }
+
+    /**
+     * Decodes row records lazily as the insert path pulls them
+     */
+    private static final class RowDecoder implements Iterator<Object[]> {
+        private final DataInputStream in;
+        private final int[] encodings;
+        private Boolean more;
+
+        RowDecoder(DataInputStream in, int[] encodings) {
+            this.in = in;
+            this.encodings = encodings;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (more == null) {
+                try {
+                    more = in.readByte() == MORE;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return more;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            more = null;
+            try {
+                Object[] values = new Object[encodings.length];
+                for (int i = 0; i < values.length; i++) {
+                    if (in.readByte() == NULL) {
+                        continue;
+                    }
+                    values[i] = readValue(encodings[i]);
+                }
+                return values;
+            } catch (EOFException e) {
+                throw new UncheckedIOException(new IOException("Snapshot file is truncated", e));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Object readValue(int encoding) throws IOException {
+            switch (encoding) {
+                case INT:
+                    return in.readInt();
+                case LONG:
+                    return in.readLong();
+                case FLOAT:
+                    return in.readFloat();
+                case DOUBLE:
+                    return in.readDouble();
+                case BOOLEAN:
+                    return in.readBoolean();
+                case DECIMAL:
+                    return new BigDecimal(readString());
+                case DATE:
+                    return Date.valueOf(LocalDate.ofEpochDay(in.readLong()));
+                case TIME:
+                    return Time.valueOf(LocalTime.ofNanoOfDay(in.readLong()));
+                case TIMESTAMP: {
+                    Timestamp value = new Timestamp(in.readLong());
+                    value.setNanos(in.readInt());
+                    return value;
+                }
+                case TIMESTAMP_TZ: {
+                    Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                    return OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(in.readInt()));
+                }
+                case BYTES: {
+                    byte[] value = new byte[in.readInt()];
+                    in.readFully(value);
+                    return value;
+                }
+                default:
+                    return readString();
+            }
+        }
+
+        private String readString() throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int encodingFor(int sqlType) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return INT;
+            case Types.BIGINT:
+                return LONG;
+            case Types.REAL:
+                return FLOAT;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return DOUBLE;
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return BOOLEAN;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return DECIMAL;
+            case Types.DATE:
+                return DATE;
+            case Types.TIME:
+                return TIME;
+            case Types.TIMESTAMP:
+                return TIMESTAMP;
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return TIMESTAMP_TZ;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return BYTES;
+            default:
+                return STRING;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package testdata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * DependencySeeder inserts a multi-table dataset in foreign-key order without a
+ * hand-maintained table list. It builds a TableDependencyGraph from the
+ * database metadata, inserts the tables of each level in parallel across
+ * pooled connections, and replaces {@link Ref} placeholders in child rows with
+ * the keys generated for the referenced parent rows. Inside an isolated scope
+ * the tables are inserted one after another on the calling thread.
+ */
+public class DependencySeeder {
+    private static final Logger LOGGER = Logger.getLogger(DependencySeeder.class.getName());
+
+    /**
+     * Placeholder for the generated key of another row in the same dataset
+     */
+    public static final class Ref {
+        private final String table;
+        private final int row;
+
+        private Ref(String table, int row) {
+            this.table = table;
+            this.row = row;
+        }
+
+        @Override
+        public String toString() {
+            return table + "[" + row + "]";
+        }
+    }
+
+    /**
+     * Refers to the generated key of a parent row
+     * @param table Parent table name, spelled as in the dataset
+     * @param row Position of the parent row in the dataset's list for that table
+     * @return Placeholder to use as a column value in a child row
+     */
+    public static Ref ref(String table, int row) {
+        return new Ref(table, row);
+    }
+
+    /**
+     * Outcome of a seed: the levels used and the generated keys per referenced table
+     */
+    public static class SeedResult {
+        private final List<List<String>> levels;
+        private final Map<String, List<Integer>> generatedKeys;
+
+        SeedResult(List<List<String>> levels, Map<String, List<Integer>> generatedKeys) {
+            this.levels = levels;
+            this.generatedKeys = Collections.unmodifiableMap(new HashMap<>(generatedKeys));
+        }
+
+        public List<List<String>> getLevels() {
+            return levels;
+        }
+
+        /**
+         * @param table Table name as spelled in the dataset
+         * @return Generated keys in row order, or an empty list if no row referred to the table
+         */
+        public List<Integer> getGeneratedKeys(String table) {
+            List<Integer> keys = generatedKeys.get(table);
+            return keys == null ? Collections.emptyList() : Collections.unmodifiableList(keys);
+        }
+    }
+
+    private final TestDataManager manager;
+    private final int parallelism;
+
+    /**
+     * @param manager Connected manager, in pooled mode for parallel levels
+     * @param parallelism Tables inserted at once within a level; clamped to the manager's connection count
+     */
+    public DependencySeeder(TestDataManager manager, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.manager = manager;
+        this.parallelism = Math.min(parallelism, manager.getMaxConnections());
+    }
+
+    /**
+     * Seeds the dataset level by level
+     * @param dataset Rows per table name; values may be {@link Ref}s to rows of other tables
+     * @return Levels used and generated keys of referenced tables
+     * @throws SQLException if metadata cannot be read, the dependencies form a cycle, or an insert fails
+     */
+    public SeedResult seed(Map<String, List<Map<String, Object>>> dataset) throws SQLException {
+        Map<String, Set<String>> refParents = collectRefParents(dataset);
+        Set<String> referenced = new LinkedHashSet<>();
+        for (Set<String> tableParents : refParents.values()) {
+            referenced.addAll(tableParents);
+        }
+
+        TableDependencyGraph graph;
+        Connection conn = manager.acquireConnection();
+        try {
+            graph = TableDependencyGraph.build(conn, dataset.keySet(), refParents);
+        } finally {
+            manager.releaseConnection(conn);
+        }
+
+        Map<String, List<Integer>> keys = new ConcurrentHashMap<>();
+        ExecutorService executor = ParallelTasks.newExecutor(manager, "DependencySeeder", parallelism);
+        try {
+            for (List<String> level : graph.getInsertLevels()) {
+                List<Future<?>> futures = new ArrayList<>(level.size());
+                for (String table : level) {
+                    futures.add(executor.submit(() -> {
+                        insertTable(table, dataset.get(table), referenced.contains(table), keys);
+                        return null;
+                    }));
+                }
+                ParallelTasks.awaitAll(futures, "seeding");
+            }
+        } catch (SQLException e) {
+            LOGGER.severe("Seeding failed: " + e.getMessage());
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LOGGER.info("Seeded " + dataset.size() + " tables in " + graph.getInsertLevels().size() + " levels");
+        return new SeedResult(graph.getInsertLevels(), keys);
+    }
+
+    private void insertTable(String table, List<Map<String, Object>> rows, boolean keepKeys,
+                             Map<String, List<Integer>> keys) throws SQLException {
+        List<Map<String, Object>> resolved = resolveRefs(table, rows, keys);
+        if (keepKeys) {
+            // Only tables other rows point at pay for generated-key retrieval
+            keys.put(table, manager.insertTestDataBatch(table, resolved));
+            return;
+        }
+        Connection conn = manager.acquireConnection();
+        try {
+            manager.insertInOrder(conn, table, resolved);
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    private static List<Map<String, Object>> resolveRefs(String table, List<Map<String, Object>> rows,
+                                                         Map<String, List<Integer>> keys) throws SQLException {
+        List<Map<String, Object>> resolved = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> copy = null;
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                if (!(entry.getValue() instanceof Ref)) {
+                    continue;
+                }
+                Ref ref = (Ref) entry.getValue();
+                List<Integer> parentKeys = keys.get(ref.table);
+                if (parentKeys == null || ref.row < 0 || ref.row >= parentKeys.size()) {
+                    throw new SQLException(table + "." + entry.getKey() + " refers to missing row " + ref);
+                }
+                int key = parentKeys.get(ref.row);
+                if (key == -1) {
+                    throw new SQLException("No generated key was returned for " + ref);
+                }
+                if (copy == null) {
+                    copy = new LinkedHashMap<>(row);
+                }
+                copy.put(entry.getKey(), key);
+            }
+            resolved.add(copy != null ? copy : row);
+        }
+        return resolved;
+    }
+
+    private static Map<String, Set<String>> collectRefParents(Map<String, List<Map<String, Object>>> dataset) {
+        Map<String, Set<String>> refParents = new HashMap<>();
+        for (Map.Entry<String, List<Map<String, Object>>> table : dataset.entrySet()) {
+            for (Map<String, Object> row : table.getValue()) {
+                for (Object value : row.values()) {
+                    if (value instanceof Ref) {
+                        String parent = ((Ref) value).table;
+                        if (!dataset.containsKey(parent) || parent.equals(table.getKey())) {
+                            throw new IllegalArgumentException(table.getKey() + " has unsupported reference to "
+                                    + value + "; refs must point at another table in the dataset");
+                        }
+                        refParents.computeIfAbsent(table.getKey(), k -> new LinkedHashSet<>()).add(parent);
+                    }
+                }
+            }
+        }
+        return refParents;
+    }
+}
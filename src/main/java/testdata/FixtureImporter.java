@@ -0,0 +1,652 @@
+package testdata;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * FixtureImporter loads CSV and JSON Lines fixture files into a table in one
+ * pass. A parser thread reads the file through a buffered NIO reader, converts
+ * each value to the column's SQL type and hands chunks of rows to the writer
+ * through a bounded queue, so parsing overlaps with database writes and memory
+ * use is capped by the queue depth rather than the file size.
+ */
+public class FixtureImporter {
+    private static final Logger LOGGER = Logger.getLogger(FixtureImporter.class.getName());
+
+    // Marks the end of input in the chunk queue
+    private static final List<Object[]> END = Collections.emptyList();
+
+    private final TestDataManager manager;
+    private int chunkSize = 1000;
+    private int queueDepth = 8;
+
+    /**
+     * @param manager Connected manager the rows are written through
+     */
+    public FixtureImporter(TestDataManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * @param chunkSize Rows handed from the parser to the writer at a time
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param queueDepth Parsed chunks allowed to wait for the writer
+     */
+    public void setQueueDepth(int queueDepth) {
+        if (queueDepth < 1) {
+            throw new IllegalArgumentException("queueDepth must be at least 1");
+        }
+        this.queueDepth = queueDepth;
+    }
+
+    /**
+     * Imports a CSV file whose first line names the columns. Unquoted empty
+     * fields are loaded as NULL; quoted empty fields as empty strings. Rows the
+     * writer committed before a failure stay in the table.
+     * @param tableName Name of the table
+     * @param file CSV file in UTF-8
+     * @return Number of rows imported
+     * @throws IOException if the file cannot be read or parsed
+     * @throws SQLException if the rows cannot be written
+     */
+    public long importCsv(String tableName, Path file) throws IOException, SQLException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            CsvParser parser = new CsvParser(reader);
+            List<String> header = parser.next();
+            if (header == null) {
+                reader.close();
+                return 0;
+            }
+            return runPipeline(tableName, file, header, reader, (columns, types) -> {
+                List<String> fields = parser.next();
+                if (fields == null) {
+                    return null;
+                }
+                if (fields.size() != columns.size()) {
+                    throw new IOException("Line " + parser.line + ": expected " + columns.size()
+                            + " fields but found " + fields.size());
+                }
+                Object[] values = new Object[fields.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = convert(fields.get(i), types[i], parser.line);
+                }
+                return values;
+            });
+        } catch (IOException | SQLException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Imports a JSON Lines file of flat objects. The first record fixes the
+     * column list; later records may omit fields (loaded as NULL) but may not add new ones.
+     * @param tableName Name of the table
+     * @param file JSONL file in UTF-8
+     * @return Number of rows imported
+     * @throws IOException if the file cannot be read or parsed
+     * @throws SQLException if the rows cannot be written
+     */
+    public long importJsonLines(String tableName, Path file) throws IOException, SQLException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            int[] lineNumber = {0};
+            Map<String, Object> first = nextJsonRecord(reader, lineNumber);
+            if (first == null) {
+                reader.close();
+                return 0;
+            }
+            List<String> header = new ArrayList<>(first.keySet());
+            Deque<Map<String, Object>> pending = new ArrayDeque<>();
+            pending.add(first);
+
+            return runPipeline(tableName, file, header, reader, (columns, types) -> {
+                Map<String, Object> record = pending.poll();
+                if (record == null) {
+                    record = nextJsonRecord(reader, lineNumber);
+                    if (record == null) {
+                        return null;
+                    }
+                }
+                Object[] values = new Object[columns.size()];
+                int matched = 0;
+                for (int i = 0; i < values.length; i++) {
+                    String column = columns.get(i);
+                    if (record.containsKey(column)) {
+                        matched++;
+                        values[i] = convert(record.get(column), types[i], lineNumber[0]);
+                    }
+                }
+                if (matched != record.size()) {
+                    throw new IOException("Line " + lineNumber[0] + ": record has fields not in the first record");
+                }
+                return values;
+            });
+        } catch (IOException | SQLException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Produces the next converted row, or null at end of input
+     */
+    @FunctionalInterface
+    private interface RowSource {
+        Object[] next(List<String> columns, int[] types) throws IOException;
+    }
+
+    private long runPipeline(String tableName, Path file, List<String> columns, BufferedReader reader,
+                             RowSource source) throws IOException, SQLException {
+        int[] types = resolveTypes(tableName, columns);
+        BlockingQueue<List<Object[]>> queue = new ArrayBlockingQueue<>(queueDepth);
+        ChunkIterator rows = new ChunkIterator(queue);
+
+        Thread parser = new Thread(() -> {
+            try (reader) {
+                List<Object[]> chunk = new ArrayList<>(chunkSize);
+                Object[] row;
+                while (!rows.cancelled && (row = source.next(columns, types)) != null) {
+                    chunk.add(row);
+                    if (chunk.size() == chunkSize) {
+                        rows.put(chunk);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    rows.put(chunk);
+                }
+            } catch (IOException e) {
+                rows.failure = e;
+            } catch (RuntimeException e) {
+                rows.failure = new IOException(e);
+            } finally {
+                rows.put(END);
+            }
+        }, "FixtureImporter-" + file.getFileName());
+        parser.setDaemon(true);
+        parser.start();
+
+        try {
+            long imported = manager.bulkLoad(tableName, columns, rows);
+            if (rows.failure != null) {
+                throw rows.failure;
+            }
+            LOGGER.info("Imported " + imported + " rows from " + file + " into " + tableName);
+            return imported;
+        } catch (ParseFailure e) {
+            throw rows.failure;
+        } catch (SQLException e) {
+            // A writer aborted by a parse error reports the parse error instead
+            if (rows.failure != null) {
+                throw rows.failure;
+            }
+            LOGGER.severe("Error importing " + file + ": " + e.getMessage());
+            throw e;
+        } finally {
+            rows.cancelled = true;
+            queue.clear();
+        }
+    }
+
+    private int[] resolveTypes(String tableName, List<String> columns) throws SQLException {
+        Map<String, Integer> columnTypes;
+        Connection conn = manager.acquireConnection();
+        try {
+            columnTypes = TableMetadata.columnTypes(conn, tableName);
+        } finally {
+            manager.releaseConnection(conn);
+        }
+        int[] types = new int[columns.size()];
+        for (int i = 0; i < types.length; i++) {
+            String column = columns.get(i);
+            if (column == null || column.trim().isEmpty()) {
+                throw new SQLException("Header field " + (i + 1) + " of the fixture for " + tableName
+                        + " has no column name");
+            }
+            Integer type = columnTypes.get(column.toUpperCase(Locale.ROOT));
+            if (type == null) {
+                throw new SQLException("Column " + column + " not found in " + tableName);
+            }
+            types[i] = type;
+        }
+        return types;
+    }
+
+    /**
+     * Signals the writer that the parser thread failed; the real cause is kept on the iterator
+     */
+    private static final class ParseFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ParseFailure() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Hands rows from parsed chunks to the writer, blocking while the parser catches up
+     */
+    private static final class ChunkIterator implements Iterator<Object[]> {
+        private final BlockingQueue<List<Object[]>> queue;
+        private List<Object[]> current = Collections.emptyList();
+        private int position;
+        private boolean finished;
+        volatile boolean cancelled;
+        volatile IOException failure;
+
+        ChunkIterator(BlockingQueue<List<Object[]>> queue) {
+            this.queue = queue;
+        }
+
+        void put(List<Object[]> chunk) {
+            try {
+                while (!cancelled) {
+                    if (queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!finished && position == current.size()) {
+                try {
+                    current = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for parsed rows", e);
+                }
+                position = 0;
+                if (current == END) {
+                    finished = true;
+                    if (failure != null) {
+                        throw new ParseFailure();
+                    }
+                }
+            }
+            return !finished;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.get(position++);
+        }
+    }
+
+    /**
+     * Converts a parsed value to the Java type the JDBC driver expects for the column
+     * @param value String, Number, Boolean or null from the parser
+     * @param sqlType java.sql.Types code of the target column
+     * @param line Line number used in error messages
+     * @return Converted value
+     * @throws IOException if the value does not fit the column type
+     */
+    static Object convert(Object value, int sqlType, long line) throws IOException {
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString();
+        try {
+            switch (sqlType) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                    // Through BigDecimal so 3000000000 or 1.5 fail instead of being truncated
+                    return value instanceof Number ? new BigDecimal(text).intValueExact() : Integer.valueOf(text.trim());
+                case Types.BIGINT:
+                    return value instanceof Number ? new BigDecimal(text).longValueExact() : Long.valueOf(text.trim());
+                case Types.DECIMAL:
+                case Types.NUMERIC:
+                    return new BigDecimal(text.trim());
+                case Types.REAL:
+                    return Float.valueOf(text.trim());
+                case Types.FLOAT:
+                case Types.DOUBLE:
+                    return Double.valueOf(text.trim());
+                case Types.BIT:
+                case Types.BOOLEAN:
+                    return value instanceof Boolean ? value : parseBoolean(text.trim());
+                case Types.DATE:
+                    return Date.valueOf(text.trim());
+                case Types.TIME:
+                    return Time.valueOf(text.trim());
+                case Types.TIMESTAMP:
+                    return Timestamp.valueOf(text.trim().replace('T', ' '));
+                case Types.TIMESTAMP_WITH_TIMEZONE:
+                    return OffsetDateTime.parse(text.trim());
+                case Types.BINARY:
+                case Types.VARBINARY:
+                case Types.LONGVARBINARY:
+                case Types.BLOB:
+                    return parseHex(text.trim());
+                default:
+                    return text;
+            }
+        } catch (IllegalArgumentException | ArithmeticException | java.time.DateTimeException e) {
+            throw new IOException("Line " + line + ": cannot convert '" + text + "' to SQL type " + sqlType, e);
+        }
+    }
+
+    private static Boolean parseBoolean(String text) {
+        switch (text.toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "t":
+            case "yes":
+            case "y":
+            case "1":
+                return Boolean.TRUE;
+            case "false":
+            case "f":
+            case "no":
+            case "n":
+            case "0":
+                return Boolean.FALSE;
+            default:
+                throw new IllegalArgumentException("Not a boolean: " + text);
+        }
+    }
+
+    private static byte[] parseHex(String text) {
+        String hex = text.startsWith("\\x") || text.startsWith("0x") ? text.substring(2) : text;
+        if (hex.length() % 2 != 0) {
+            throw new IllegalArgumentException("Odd-length hex string");
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int hi = Character.digit(hex.charAt(2 * i), 16);
+            int lo = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (hi < 0 || lo < 0) {
+                throw new IllegalArgumentException("Invalid hex digit");
+            }
+            bytes[i] = (byte) ((hi << 4) | lo);
+        }
+        return bytes;
+    }
+
+    /**
+     * RFC 4180 reader: comma separated, double-quote enclosed, quotes doubled
+     * inside quoted fields, which may span lines
+     */
+    private static final class CsvParser {
+        private final BufferedReader in;
+        private final StringBuilder field = new StringBuilder();
+        long line;
+
+        CsvParser(BufferedReader in) {
+            this.in = in;
+        }
+
+        /**
+         * @return Fields of the next record (null for unquoted empty fields), or null at end of input
+         */
+        List<String> next() throws IOException {
+            int ch = in.read();
+            while (ch == '\r' || ch == '\n') {
+                if (ch == '\n') {
+                    line++;
+                }
+                ch = in.read();
+            }
+            if (ch == -1) {
+                return null;
+            }
+            line++;
+
+            List<String> fields = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            while (true) {
+                if (quoted) {
+                    if (ch == -1) {
+                        throw new IOException("Line " + line + ": unterminated quoted field");
+                    }
+                    if (ch == '"') {
+                        int peek = in.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            ch = peek;
+                            continue;
+                        }
+                    } else {
+                        if (ch == '\n') {
+                            line++;
+                        }
+                        field.append((char) ch);
+                    }
+                } else if (ch == ',' || ch == '\n' || ch == '\r' || ch == -1) {
+                    fields.add(field.length() == 0 && !wasQuoted ? null : field.toString());
+                    field.setLength(0);
+                    wasQuoted = false;
+                    if (ch != ',') {
+                        if (ch == '\r') {
+                            in.mark(1);
+                            if (in.read() != '\n') {
+                                in.reset();
+                            }
+                        }
+                        return fields;
+                    }
+                } else if (ch == '"' && field.length() == 0) {
+                    quoted = true;
+                    wasQuoted = true;
+                } else {
+                    field.append((char) ch);
+                }
+                ch = in.read();
+            }
+        }
+    }
+
+    private static Map<String, Object> nextJsonRecord(BufferedReader in, int[] lineNumber) throws IOException {
+        String text;
+        do {
+            text = in.readLine();
+            if (text == null) {
+                return null;
+            }
+            lineNumber[0]++;
+        } while (text.trim().isEmpty());
+        return new JsonLineParser(text, lineNumber[0]).parseObject();
+    }
+
+    /**
+     * Parses one flat JSON object. Nested objects and arrays are kept as their JSON text.
+     */
+    private static final class JsonLineParser {
+        private final String text;
+        private final int line;
+        private int pos;
+
+        JsonLineParser(String text, int line) {
+            this.text = text;
+            this.line = line;
+        }
+
+        Map<String, Object> parseObject() throws IOException {
+            Map<String, Object> record = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return record;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = parseString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                record.put(key, parseValue());
+                skipWhitespace();
+                char ch = take();
+                if (ch == '}') {
+                    return record;
+                }
+                if (ch != ',') {
+                    throw error("expected ',' or '}'");
+                }
+            }
+        }
+
+        private Object parseValue() throws IOException {
+            char ch = peek();
+            if (ch == '"') {
+                return parseString();
+            }
+            if (ch == '{' || ch == '[') {
+                return rawNested();
+            }
+            if (text.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error("unexpected character '" + ch + "'");
+            }
+            String number = text.substring(start, pos);
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                long value = Long.parseLong(number);
+                return value == (int) value ? Integer.valueOf((int) value) : Long.valueOf(value);
+            }
+            return new BigDecimal(number);
+        }
+
+        private String parseString() throws IOException {
+            expect('"');
+            StringBuilder out = new StringBuilder();
+            while (true) {
+                char ch = take();
+                if (ch == '"') {
+                    return out.toString();
+                }
+                if (ch != '\\') {
+                    out.append(ch);
+                    continue;
+                }
+                char escape = take();
+                switch (escape) {
+                    case 'b': out.append('\b'); break;
+                    case 'f': out.append('\f'); break;
+                    case 'n': out.append('\n'); break;
+                    case 'r': out.append('\r'); break;
+                    case 't': out.append('\t'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("truncated unicode escape");
+                        }
+                        out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: out.append(escape);
+                }
+            }
+        }
+
+        private String rawNested() throws IOException {
+            int start = pos;
+            int depth = 0;
+            boolean inString = false;
+            while (true) {
+                char ch = take();
+                if (inString) {
+                    if (ch == '\\') {
+                        take();
+                    } else if (ch == '"') {
+                        inString = false;
+                    }
+                } else if (ch == '"') {
+                    inString = true;
+                } else if (ch == '{' || ch == '[') {
+                    depth++;
+                } else if ((ch == '}' || ch == ']') && --depth == 0) {
+                    return text.substring(start, pos);
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() throws IOException {
+            if (pos >= text.length()) {
+                throw error("unexpected end of line");
+            }
+            return text.charAt(pos);
+        }
+
+        private char take() throws IOException {
+            char ch = peek();
+            pos++;
+            return ch;
+        }
+
+        private void expect(char expected) throws IOException {
+            if (take() != expected) {
+                throw error("expected '" + expected + "'");
+            }
+        }
+
+        private IOException error(String message) {
+            return new IOException("Line " + line + ", column " + (pos + 1) + ": " + message);
+        }
+    }
+}
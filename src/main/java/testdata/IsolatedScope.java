@@ -0,0 +1,171 @@
+package testdata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * IsolatedScope runs a test's data changes inside one transaction that is
+ * rolled back when the scope closes, so no physical cleanup is needed.
+ * <p>
+ * While the scope is open, every TestDataManager call made on the thread that
+ * opened it uses the scope's connection, so existing helpers join the
+ * transaction without changes. The batch APIs do not commit inside a scope,
+ * and ParallelLoader, DependencySeeder, TeardownEngine and DataGenerator run
+ * their work on the opening thread instead of on worker threads.
+ * <pre>
+ * try (IsolatedScope scope = manager.beginIsolatedScope()) {
+ *     scope.insertTestData("users", user);
+ *     ...
+ * } // rolled back here
+ * </pre>
+ */
+public class IsolatedScope implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(IsolatedScope.class.getName());
+
+    private final TestDataManager manager;
+    private final Connection connection;
+    private final boolean savepointPerStep;
+    private final Thread owner;
+    private final boolean restoreAutoCommit;
+    private volatile boolean closed;
+
+    IsolatedScope(TestDataManager manager, Connection connection, boolean savepointPerStep) throws SQLException {
+        this.manager = manager;
+        this.connection = connection;
+        this.savepointPerStep = savepointPerStep;
+        this.owner = Thread.currentThread();
+        this.restoreAutoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+    }
+
+    /**
+     * @see TestDataManager#insertTestData(String, Map)
+     */
+    public int insertTestData(String tableName, Map<String, Object> data) throws SQLException {
+        return step(() -> manager.insertTestData(tableName, data));
+    }
+
+    /**
+     * @see TestDataManager#retrieveTestData(String, Map)
+     */
+    public List<Map<String, Object>> retrieveTestData(String tableName, Map<String, Object> conditions)
+            throws SQLException {
+        return step(() -> manager.retrieveTestData(tableName, conditions));
+    }
+
+    /**
+     * @see TestDataManager#updateTestData(String, Map, Map)
+     */
+    public int updateTestData(String tableName, Map<String, Object> updateData,
+                              Map<String, Object> conditions) throws SQLException {
+        return step(() -> manager.updateTestData(tableName, updateData, conditions));
+    }
+
+    /**
+     * @see TestDataManager#deleteTestData(String, Map)
+     */
+    public int deleteTestData(String tableName, Map<String, Object> conditions) throws SQLException {
+        return step(() -> manager.deleteTestData(tableName, conditions));
+    }
+
+    /**
+     * Marks a point the scope can later roll back to without ending the transaction
+     * @param name Savepoint name
+     * @return Savepoint to pass to rollbackTo
+     * @throws SQLException if the driver does not support savepoints
+     */
+    public Savepoint savepoint(String name) throws SQLException {
+        checkUsable();
+        return connection.setSavepoint(name);
+    }
+
+    /**
+     * Undoes the changes made since the savepoint; the scope stays open
+     * @param savepoint Savepoint obtained from this scope
+     * @throws SQLException if the rollback fails
+     */
+    public void rollbackTo(Savepoint savepoint) throws SQLException {
+        checkUsable();
+        connection.rollback(savepoint);
+    }
+
+    /**
+     * @return The scope's connection, for statements the manager does not cover
+     */
+    public Connection getConnection() {
+        checkUsable();
+        return connection;
+    }
+
+    /**
+     * Rolls back everything done in the scope and returns the connection
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            connection.rollback();
+            connection.setAutoCommit(restoreAutoCommit);
+        } catch (SQLException e) {
+            LOGGER.warning("Error rolling back isolated scope: " + e.getMessage());
+        } finally {
+            manager.endIsolatedScope(this);
+        }
+    }
+
+    Connection connection() {
+        return connection;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @FunctionalInterface
+    private interface Step<T> {
+        T run() throws SQLException;
+    }
+
+    private <T> T step(Step<T> operation) throws SQLException {
+        checkUsable();
+        if (!savepointPerStep) {
+            return operation.run();
+        }
+        // A failed step is undone on its own so the rest of the scope stays usable,
+        // which PostgreSQL otherwise refuses after any error in a transaction
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            T result = operation.run();
+            try {
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLFeatureNotSupportedException e) {
+                // The savepoint simply lapses when the scope rolls back
+            }
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            try {
+                connection.rollback(savepoint);
+            } catch (SQLException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+            }
+            throw e;
+        }
+    }
+
+    private void checkUsable() {
+        if (closed) {
+            throw new IllegalStateException("Isolated scope is closed");
+        }
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Isolated scope is confined to the thread that opened it");
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package testdata;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * KeyLookup reads or deletes the rows matching a set of key values, choosing
+ * the statement form by set size. Up to one chunk of keys, and on databases
+ * without a better option, keys go into IN lists whose placeholder count is
+ * rounded up to a power of two, so only a handful of statement shapes are ever
+ * prepared. Larger sets use a single array parameter (= ANY(?)) on PostgreSQL
+ * and H2, or are loaded into a temporary table and joined on MySQL, SQLite and
+ * SQL Server, so 100k keys take a few round trips instead of 100k.
+ * <p>
+ * Both paths are safe inside an open transaction: H2 commits implicitly on
+ * any DDL, so it never creates a table here, and the temporary-table DDL of
+ * the other three databases does not end the transaction.
+ * <p>
+ * The temporary table has no key: the keys are distinct by Java equality,
+ * but a case-insensitive collation can still see "abc" and "ABC" as equal.
+ * It is matched with IN (SELECT ...) so such keys do not duplicate rows, and
+ * it is dropped if present before it is created, so a drop that failed in an
+ * earlier call does not break every later one on the same connection.
+ */
+final class KeyLookup {
+    private static final Logger LOGGER = Logger.getLogger(KeyLookup.class.getName());
+
+    private static final int MAX_IN_LIST = 1024;
+    private static final int TEMP_INSERT_ROWS = 10_000;
+
+    private KeyLookup() {
+    }
+
+    /**
+     * @param dialect Dialect of the connection
+     * @return Largest IN list, a power of two within the dialect's parameter limit
+     */
+    static int maxChunk(SqlDialect dialect) {
+        return Integer.highestOneBit(Math.min(MAX_IN_LIST, dialect.getMaxBindParameters()));
+    }
+
+    /**
+     * @param keys Key values, possibly with duplicates
+     * @return Distinct keys in first-seen order
+     */
+    static List<Object> distinct(Collection<?> keys) {
+        return new ArrayList<>(new LinkedHashSet<>(keys));
+    }
+
+    /**
+     * @param conn Connection to use
+     * @param dialect Dialect of the connection
+     * @param cache Statement cache for the IN-list and array shapes
+     * @param tableName Name of the table
+     * @param keyColumn Column the keys match
+     * @param keys Distinct key values
+     * @return Matching rows, in no particular order
+     * @throws SQLException if retrieval fails
+     */
+    static ResultTable select(Connection conn, SqlDialect dialect, StatementCache cache, String tableName,
+                              String keyColumn, List<Object> keys) throws SQLException {
+        if (keys.size() > maxChunk(dialect)) {
+            if (dialect == SqlDialect.POSTGRESQL || dialect == SqlDialect.H2) {
+                return selectByArray(conn, dialect, cache, tableName, keyColumn, keys);
+            }
+            String tempTable = tempTableName(dialect);
+            String keyType = tempTable == null ? null
+                    : tempKeyType(dialect, keyColumn(conn, tableName, keyColumn));
+            if (keyType != null) {
+                createTempTable(conn, dialect, tempTable, keyType, keys);
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT * FROM " + tableName + " WHERE " + keyColumn
+                             + " IN (SELECT k FROM " + tempTable + ")")) {
+                    return TestDataManager.readTable(rs);
+                } finally {
+                    dropTempTable(conn, dialect, tempTable);
+                }
+            }
+        }
+
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        String[] columns = null;
+        for (int from = 0; from < keys.size(); from += maxChunk(dialect)) {
+            List<Object> chunk = keys.subList(from, Math.min(keys.size(), from + maxChunk(dialect)));
+            try (StatementCache.Lease lease = prepareInList(conn, cache, "KEYS_SELECT", tableName, keyColumn,
+                    chunk, "SELECT * FROM " + tableName);
+                 ResultSet rs = lease.statement().executeQuery()) {
+                ResultTable part = TestDataManager.readTable(rs);
+                columns = part.getColumns().toArray(new String[0]);
+                for (int i = 0; i < part.size(); i++) {
+                    rows.add(part.getRowValues(i));
+                }
+            }
+        }
+        return new ResultTable(columns != null ? columns : new String[0], rows);
+    }
+
+    /**
+     * Deletes the matching rows; the caller owns the transaction
+     * @return Number of rows deleted
+     * @throws SQLException if deletion fails
+     */
+    static long delete(Connection conn, SqlDialect dialect, StatementCache cache, String tableName,
+                       String keyColumn, List<Object> keys) throws SQLException {
+        if (keys.size() > maxChunk(dialect)) {
+            if (dialect == SqlDialect.POSTGRESQL || dialect == SqlDialect.H2) {
+                return deleteByArray(conn, dialect, cache, tableName, keyColumn, keys);
+            }
+            String tempTable = tempTableName(dialect);
+            String keyType = tempTable == null ? null
+                    : tempKeyType(dialect, keyColumn(conn, tableName, keyColumn));
+            if (keyType != null) {
+                createTempTable(conn, dialect, tempTable, keyType, keys);
+                try (Statement stmt = conn.createStatement()) {
+                    return stmt.executeUpdate("DELETE FROM " + tableName + " WHERE " + keyColumn
+                            + " IN (SELECT k FROM " + tempTable + ")");
+                } finally {
+                    dropTempTable(conn, dialect, tempTable);
+                }
+            }
+        }
+
+        long deleted = 0;
+        for (int from = 0; from < keys.size(); from += maxChunk(dialect)) {
+            List<Object> chunk = keys.subList(from, Math.min(keys.size(), from + maxChunk(dialect)));
+            try (StatementCache.Lease lease = prepareInList(conn, cache, "KEYS_DELETE", tableName, keyColumn,
+                    chunk, "DELETE FROM " + tableName)) {
+                deleted += lease.statement().executeUpdate();
+            }
+        }
+        return deleted;
+    }
+
+    private static StatementCache.Lease prepareInList(Connection conn, StatementCache cache, String operation,
+                                                      String tableName, String keyColumn, List<Object> chunk,
+                                                      String prefix) throws SQLException {
+        int placeholders = QuerySpec.inListBucket(chunk.size());
+        StatementCache.Key key = new StatementCache.Key(operation, tableName, List.of(keyColumn),
+                List.of("IN " + placeholders));
+        String sql = cache.sql(key, () -> {
+            StringBuilder builder = new StringBuilder(prefix).append(" WHERE ").append(keyColumn).append(" IN (");
+            for (int i = 0; i < placeholders; i++) {
+                builder.append(i == 0 ? "?" : ", ?");
+            }
+            return builder.append(')').toString();
+        });
+        StatementCache.Lease lease = cache.prepare(conn, key, sql, false);
+        try {
+            PreparedStatement pstmt = lease.statement();
+            for (int i = 0; i < placeholders; i++) {
+                // Padding repeats the last key, which matches nothing new
+                pstmt.setObject(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+            }
+            return lease;
+        } catch (SQLException e) {
+            lease.close();
+            throw e;
+        }
+    }
+
+    private static ResultTable selectByArray(Connection conn, SqlDialect dialect, StatementCache cache,
+                                             String tableName, String keyColumn, List<Object> keys)
+            throws SQLException {
+        StatementCache.Key key = new StatementCache.Key("KEYS_SELECT", tableName, List.of(keyColumn),
+                List.of("ANY"));
+        String sql = cache.sql(key, () -> "SELECT * FROM " + tableName + " WHERE " + keyColumn + " = ANY(?)");
+        Array array = keyArray(conn, dialect, tableName, keyColumn, keys);
+        try (StatementCache.Lease lease = cache.prepare(conn, key, sql, false)) {
+            lease.statement().setArray(1, array);
+            try (ResultSet rs = lease.statement().executeQuery()) {
+                return TestDataManager.readTable(rs);
+            }
+        } finally {
+            array.free();
+        }
+    }
+
+    private static long deleteByArray(Connection conn, SqlDialect dialect, StatementCache cache,
+                                      String tableName, String keyColumn, List<Object> keys) throws SQLException {
+        StatementCache.Key key = new StatementCache.Key("KEYS_DELETE", tableName, List.of(keyColumn),
+                List.of("ANY"));
+        String sql = cache.sql(key, () -> "DELETE FROM " + tableName + " WHERE " + keyColumn + " = ANY(?)");
+        Array array = keyArray(conn, dialect, tableName, keyColumn, keys);
+        try (StatementCache.Lease lease = cache.prepare(conn, key, sql, false)) {
+            lease.statement().setArray(1, array);
+            return lease.statement().executeUpdate();
+        } finally {
+            array.free();
+        }
+    }
+
+    private static Array keyArray(Connection conn, SqlDialect dialect, String tableName, String keyColumn,
+                                  List<Object> keys) throws SQLException {
+        TableMetadata.Column column = keyColumn(conn, tableName, keyColumn);
+        return conn.createArrayOf(arrayElementType(dialect, column), keys.toArray());
+    }
+
+    /**
+     * Element type for createArrayOf, from the JDBC type because reported
+     * type names can be pseudo-types such as PostgreSQL's serial
+     */
+    private static String arrayElementType(SqlDialect dialect, TableMetadata.Column column) {
+        boolean postgres = dialect == SqlDialect.POSTGRESQL;
+        switch (column.sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return postgres ? "int4" : "INTEGER";
+            case Types.BIGINT:
+                return postgres ? "int8" : "BIGINT";
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return postgres ? "numeric" : "NUMERIC";
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+                return postgres ? "varchar" : "VARCHAR";
+            default:
+                // uuid and other driver-specific types are named correctly
+                return column.typeName;
+        }
+    }
+
+    private static TableMetadata.Column keyColumn(Connection conn, String tableName, String keyColumn)
+            throws SQLException {
+        for (TableMetadata.Column column : TableMetadata.columns(conn, tableName)) {
+            if (column.name.equalsIgnoreCase(keyColumn)) {
+                return column;
+            }
+        }
+        throw new SQLException("Table " + tableName + " has no column " + keyColumn);
+    }
+
+    /**
+     * @return Session-local table name, or null where temporary tables need DDL
+     *         run ahead of time or would commit the open transaction
+     */
+    private static String tempTableName(SqlDialect dialect) {
+        switch (dialect) {
+            case SQLSERVER:
+                return "#tdm_keys";
+            case MYSQL:
+            case SQLITE:
+                return "tdm_keys";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Column type for the temporary key table, from the JDBC type because
+     * reported type names can carry extras such as SQL Server's "int identity"
+     * @return Type declaration, or null when the key type is not supported and IN lists are used
+     */
+    private static String tempKeyType(SqlDialect dialect, TableMetadata.Column column) {
+        switch (column.sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return "INT";
+            case Types.BIGINT:
+                return "BIGINT";
+            case Types.CHAR:
+            case Types.VARCHAR:
+                return column.size > 0 && column.size <= 255 ? "VARCHAR(" + column.size + ")" : null;
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+                if (column.size <= 0 || column.size > 255) {
+                    return null;
+                }
+                return (dialect == SqlDialect.SQLSERVER ? "NVARCHAR(" : "VARCHAR(") + column.size + ")";
+            default:
+                return null;
+        }
+    }
+
+    private static void createTempTable(Connection conn, SqlDialect dialect, String tempTable, String keyType,
+                                        List<Object> keys) throws SQLException {
+        String create = dialect == SqlDialect.SQLSERVER ? "CREATE TABLE " : "CREATE TEMPORARY TABLE ";
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(dropSql(dialect, tempTable));
+            stmt.executeUpdate(create + tempTable + " (k " + keyType + ")");
+        }
+
+        try {
+            // Multi-row VALUES sized to the parameter limit, sent as one JDBC batch
+            int rowsPerStatement = dialect.rowsPerInsert(1, TEMP_INSERT_ROWS);
+            String fullSql = insertSql(tempTable, rowsPerStatement);
+            try (PreparedStatement pstmt = conn.prepareStatement(fullSql)) {
+                int full = keys.size() / rowsPerStatement * rowsPerStatement;
+                for (int from = 0; from < full; from += rowsPerStatement) {
+                    for (int i = 0; i < rowsPerStatement; i++) {
+                        pstmt.setObject(i + 1, keys.get(from + i));
+                    }
+                    pstmt.addBatch();
+                }
+                if (full > 0) {
+                    pstmt.executeBatch();
+                }
+                if (full < keys.size()) {
+                    try (PreparedStatement rest = conn.prepareStatement(insertSql(tempTable, keys.size() - full))) {
+                        for (int i = full; i < keys.size(); i++) {
+                            rest.setObject(i - full + 1, keys.get(i));
+                        }
+                        rest.executeUpdate();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            dropTempTable(conn, dialect, tempTable);
+            throw e;
+        }
+    }
+
+    private static String insertSql(String tempTable, int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tempTable).append(" (k) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?)" : ", (?)");
+        }
+        return sql.toString();
+    }
+
+    private static void dropTempTable(Connection conn, SqlDialect dialect, String tempTable) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(dropSql(dialect, tempTable));
+        } catch (SQLException e) {
+            LOGGER.warning("Could not drop " + tempTable + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Statement dropping the temporary table if it exists, never a permanent table of the same name
+     */
+    static String dropSql(SqlDialect dialect, String tempTable) {
+        switch (dialect) {
+            case SQLSERVER:
+                return "IF OBJECT_ID('tempdb.." + tempTable + "') IS NOT NULL DROP TABLE " + tempTable;
+            case MYSQL:
+                return "DROP TEMPORARY TABLE IF EXISTS " + tempTable;
+            default:
+                return "DROP TABLE IF EXISTS temp." + tempTable;
+        }
+    }
+}
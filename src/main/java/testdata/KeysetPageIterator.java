@@ -0,0 +1,155 @@
+package testdata;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * KeysetPageIterator walks a table in key order one page at a time. Each page
+ * seeks past the last key of the previous one, and as soon as a page is handed
+ * out the next one is requested on a background thread, so database time
+ * overlaps with the caller's processing. Obtain one from
+ * TestDataManager.retrievePages and close it when done; failures surface as
+ * UncheckedSQLException.
+ * <pre>
+ * try (KeysetPageIterator pages = manager.retrievePages("orders", Map.of(), "id", 10_000)) {
+ *     while (pages.hasNext()) {
+ *         verify(pages.next());
+ *     }
+ * }
+ * </pre>
+ */
+public class KeysetPageIterator implements Iterator<ResultTable>, AutoCloseable {
+    private final TestDataManager manager;
+    private final String tableName;
+    private final List<String> conditionColumns;
+    private final List<Object> params;
+    private final String keyColumn;
+    private final int pageSize;
+    // Null inside an isolated scope, where pages are read on the caller's thread
+    private final ExecutorService prefetcher;
+
+    private Future<ResultTable> pending;
+    private ResultTable next;
+    private Object lastKey;
+    private boolean exhausted;
+    private long pagesRead;
+
+    KeysetPageIterator(TestDataManager manager, String tableName, List<String> conditionColumns,
+                       List<Object> params, String keyColumn, int pageSize, boolean prefetch) {
+        this.manager = manager;
+        this.tableName = tableName;
+        this.conditionColumns = conditionColumns;
+        this.params = params;
+        this.keyColumn = keyColumn;
+        this.pageSize = pageSize;
+        this.prefetcher = prefetch ? ParallelTasks.newExecutor("KeysetPageIterator", 1) : null;
+        if (prefetcher != null) {
+            // Start reading the first page straight away
+            pending = prefetcher.submit(() -> fetch(null));
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        ResultTable page = awaitPending();
+        pagesRead++;
+        if (page.isEmpty()) {
+            close();
+            return false;
+        }
+        lastKey = page.getValue(page.size() - 1, keyIndex(page));
+        if (page.size() < pageSize) {
+            // A short page is the last one; no need to ask for an empty page
+            close();
+        } else if (prefetcher != null) {
+            Object after = lastKey;
+            pending = prefetcher.submit(() -> fetch(after));
+        }
+        next = page;
+        return true;
+    }
+
+    @Override
+    public ResultTable next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ResultTable page = next;
+        next = null;
+        return page;
+    }
+
+    /**
+     * @return Pages read from the database so far
+     */
+    public long getPagesRead() {
+        return pagesRead;
+    }
+
+    /**
+     * Stops prefetching; pages already handed out stay usable
+     */
+    @Override
+    public void close() {
+        exhausted = true;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+        if (prefetcher != null) {
+            prefetcher.shutdownNow();
+        }
+    }
+
+    private ResultTable fetch(Object afterKey) throws SQLException {
+        return manager.fetchPage(tableName, conditionColumns, params, keyColumn, afterKey, pageSize);
+    }
+
+    private ResultTable awaitPending() {
+        try {
+            if (prefetcher == null) {
+                return fetch(pagesRead == 0 ? null : lastKey);
+            }
+            return pending.get();
+        } catch (SQLException e) {
+            close();
+            throw new UncheckedSQLException("Error reading page of " + tableName, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new UncheckedSQLException("Interrupted while reading page of " + tableName,
+                    new SQLException(e));
+        } catch (ExecutionException e) {
+            close();
+            Throwable cause = e.getCause();
+            throw new UncheckedSQLException("Error reading page of " + tableName,
+                    cause instanceof SQLException ? (SQLException) cause : new SQLException(cause));
+        }
+    }
+
+    private int keyIndex(ResultTable page) {
+        int index = page.indexOf(keyColumn);
+        if (index >= 0) {
+            return index;
+        }
+        List<String> columns = page.getColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).equalsIgnoreCase(keyColumn)) {
+                return i;
+            }
+        }
+        close();
+        throw new IllegalArgumentException("Key column " + keyColumn + " is not in the result of " + tableName);
+    }
+}
@@ -0,0 +1,322 @@
+package testdata;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * OperationMetrics counts calls, rows and errors and records latency
+ * histograms for every TestDataManager operation, per operation and table.
+ * <p>
+ * Recording is lock-free: counters are LongAdders and each histogram is an
+ * array of atomic bucket counts laid out like HdrHistogram, with 32 linear
+ * buckets per power of two, so percentiles are accurate to about 3% across
+ * nanoseconds to minutes at a fixed 9 KB per operation and table.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private static final Logger LOGGER = Logger.getLogger(OperationMetrics.class.getName());
+
+    private final Map<String, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+    private ObjectName registeredName;
+
+    /**
+     * Records one completed call
+     * @param operation Operation name, such as INSERT
+     * @param table Table the call worked on
+     * @param rows Rows read or written
+     * @param failed Whether the call threw
+     * @param nanos Elapsed time
+     */
+    void record(String operation, String table, long rows, boolean failed, long nanos) {
+        // Two-level lookup so the hot path builds no composite key
+        Entry entry = entries.computeIfAbsent(operation, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(table, k -> new Entry());
+        entry.calls.increment();
+        entry.rows.add(rows);
+        if (failed) {
+            entry.errors.increment();
+        }
+        entry.totalNanos.add(nanos);
+        entry.maxNanos.accumulate(nanos);
+        entry.latency.record(nanos);
+    }
+
+    /**
+     * @return Statistics per operation and table, slowest total time first
+     */
+    public List<Stats> snapshot() {
+        List<Stats> stats = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Entry>> operation : entries.entrySet()) {
+            for (Map.Entry<String, Entry> table : operation.getValue().entrySet()) {
+                stats.add(table.getValue().toStats(operation.getKey(), table.getKey()));
+            }
+        }
+        stats.sort(Comparator.comparingLong(Stats::getTotalNanos).reversed());
+        return Collections.unmodifiableList(stats);
+    }
+
+    /**
+     * @param operation Operation name, such as INSERT
+     * @param table Table name as passed to the manager
+     * @return Statistics for the pair, or null if it was never recorded
+     */
+    public Stats get(String operation, String table) {
+        Map<String, Entry> tables = entries.get(operation);
+        Entry entry = tables == null ? null : tables.get(table);
+        return entry == null ? null : entry.toStats(operation, table);
+    }
+
+    @Override
+    public List<Stats> getOperationStats() {
+        return snapshot();
+    }
+
+    @Override
+    public long getTotalCalls() {
+        long calls = 0;
+        for (Map<String, Entry> tables : entries.values()) {
+            for (Entry entry : tables.values()) {
+                calls += entry.calls.sum();
+            }
+        }
+        return calls;
+    }
+
+    @Override
+    public long getTotalErrors() {
+        long errors = 0;
+        for (Map<String, Entry> tables : entries.values()) {
+            for (Entry entry : tables.values()) {
+                errors += entry.errors.sum();
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public void reset() {
+        entries.clear();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server
+     * @param name Value of the name key, distinguishing managers in one JVM
+     * @return Name the MBean was registered under
+     * @throws JMException if the name is invalid or already taken
+     */
+    public synchronized ObjectName registerMBean(String name) throws JMException {
+        unregisterMBean();
+        ObjectName objectName = new ObjectName("TestDataManager:type=OperationMetrics,name="
+                + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        registeredName = objectName;
+        return objectName;
+    }
+
+    /**
+     * Removes the MBean registered by registerMBean, if any
+     */
+    public synchronized void unregisterMBean() {
+        if (registeredName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(registeredName)) {
+                server.unregisterMBean(registeredName);
+            }
+        } catch (JMException e) {
+            LOGGER.warning("Could not unregister " + registeredName + ": " + e.getMessage());
+        }
+        registeredName = null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (Stats stats : snapshot()) {
+            out.append(stats).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Point-in-time statistics for one operation on one table
+     */
+    public static final class Stats {
+        private final String operation;
+        private final String table;
+        private final long calls;
+        private final long rows;
+        private final long errors;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long p999Nanos;
+
+        Stats(String operation, String table, long calls, long rows, long errors, long totalNanos,
+              long maxNanos, long p50Nanos, long p99Nanos, long p999Nanos) {
+            this.operation = operation;
+            this.table = table;
+            this.calls = calls;
+            this.rows = rows;
+            this.errors = errors;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.p999Nanos = p999Nanos;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public double getMeanMillis() {
+            return calls == 0 ? 0 : totalNanos / 1e6 / calls;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1e6;
+        }
+
+        public double getP50Millis() {
+            return p50Nanos / 1e6;
+        }
+
+        public double getP99Millis() {
+            return p99Nanos / 1e6;
+        }
+
+        public double getP999Millis() {
+            return p999Nanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s: calls=%d rows=%d errors=%d total=%.1fms p50=%.3fms p99=%.3fms "
+                            + "p999=%.3fms max=%.3fms",
+                    operation, table, calls, rows, errors, totalNanos / 1e6,
+                    getP50Millis(), getP99Millis(), getP999Millis(), getMaxMillis());
+        }
+    }
+
+    private static final class Entry {
+        final LongAdder calls = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        Stats toStats(String operation, String table) {
+            long[] counts = latency.counts();
+            return new Stats(operation, table, calls.sum(), rows.sum(), errors.sum(), totalNanos.sum(),
+                    maxNanos.get(), LatencyHistogram.percentile(counts, 0.5),
+                    LatencyHistogram.percentile(counts, 0.99), LatencyHistogram.percentile(counts, 0.999));
+        }
+    }
+
+    /**
+     * Log-linear histogram of nanosecond values: values below 32 get a bucket
+     * each, and every power of two above is split into 32 equal buckets
+     */
+    static final class LatencyHistogram {
+        private static final int SUB_BITS = 5;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        // About 18 minutes; longer values share the last bucket
+        private static final long MAX_VALUE = (1L << 40) - 1;
+        private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            buckets.incrementAndGet(index(Math.max(0, Math.min(nanos, MAX_VALUE))));
+        }
+
+        long[] counts() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return counts;
+        }
+
+        static int index(long value) {
+            if (value < SUB_COUNT) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int shift = exponent - SUB_BITS;
+            return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) & (SUB_COUNT - 1));
+        }
+
+        /**
+         * @return Midpoint of the bucket's value range
+         */
+        static long valueAt(int index) {
+            if (index < SUB_COUNT) {
+                return index;
+            }
+            int shift = (index >>> SUB_BITS) - 1;
+            long lower = (long) (SUB_COUNT + (index & (SUB_COUNT - 1))) << shift;
+            return lower + ((1L << shift) >>> 1);
+        }
+
+        /**
+         * @param counts Bucket counts from counts()
+         * @param quantile Fraction between 0 and 1
+         * @return Value at the quantile, or 0 when nothing was recorded
+         */
+        static long percentile(long[] counts, double quantile) {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return valueAt(i);
+                }
+            }
+            return valueAt(counts.length - 1);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package testdata;
+
+import java.util.List;
+
+/**
+ * JMX view of the metrics a TestDataManager collects. Each entry of
+ * OperationStats covers one operation on one table; latencies are in
+ * milliseconds.
+ */
+public interface OperationMetricsMXBean {
+
+    /**
+     * @return Statistics per operation and table, slowest total time first
+     */
+    List<OperationMetrics.Stats> getOperationStats();
+
+    long getTotalCalls();
+
+    long getTotalErrors();
+
+    /**
+     * Clears all counters and histograms
+     */
+    void reset();
+}
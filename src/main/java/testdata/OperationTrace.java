@@ -0,0 +1,103 @@
+package testdata;
+
+/**
+ * OperationTrace carries the measurements of one TestDataManager call from
+ * its start to the central completion hook, which feeds them to the metrics,
+ * Flight Recorder and the slow-statement log.
+ */
+final class OperationTrace {
+    // Only asked whether the event type is enabled, so calls allocate no event while JFR is off
+    private static final DatabaseOperationEvent EVENT_TYPE = new DatabaseOperationEvent();
+
+    final String operation;
+    final String table;
+    final int parameterCount;
+    // Null unless Flight Recorder was recording the event when the call started
+    final DatabaseOperationEvent event;
+    final long startNanos = System.nanoTime();
+    long connectionWaitNanos;
+    // Time until the statement returned, for calls that keep running afterwards; -1 when not marked
+    long statementNanos = -1;
+    // Statement text, for the slow-statement log; null where the call runs several statements
+    String sql;
+    long rows;
+    boolean failed = true;
+
+    OperationTrace(String operation, String table) {
+        this(operation, table, 0);
+    }
+
+    OperationTrace(String operation, String table, int parameterCount) {
+        this.operation = operation;
+        this.table = table;
+        this.parameterCount = parameterCount;
+        if (EVENT_TYPE.isEnabled()) {
+            event = new DatabaseOperationEvent();
+            event.begin();
+        } else {
+            event = null;
+        }
+    }
+
+    /**
+     * Marks the end of the wait for a connection
+     */
+    void connectionAcquired() {
+        connectionWaitNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Marks the end of statement execution for calls, such as streams, that
+     * go on after it, so the slow-statement log does not count consumer time
+     */
+    void statementExecuted() {
+        statementNanos = System.nanoTime() - startNanos - connectionWaitNanos;
+    }
+
+    /**
+     * @return Time spent executing the statement, excluding the connection wait
+     */
+    long statementNanos(long elapsedNanos) {
+        return statementNanos >= 0 ? statementNanos : elapsedNanos - connectionWaitNanos;
+    }
+
+    /**
+     * Marks the call as successful with the given number of rows read or written
+     */
+    void succeeded(long rowCount) {
+        this.rows = rowCount;
+        this.failed = false;
+    }
+
+    /**
+     * @return The statement text, or the operation and table when there is no single statement
+     */
+    String statement() {
+        return sql != null ? sql : operation + " " + table;
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Ends the JFR event and commits it if recording is enabled for it
+     * @param elapsedNanos Elapsed time, as reported to the metrics
+     */
+    void commitEvent(long elapsedNanos) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.table = table;
+            event.parameterCount = parameterCount;
+            event.rowCount = rows;
+            event.connectionWait = connectionWaitNanos;
+            event.execution = elapsedNanos - connectionWaitNanos;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+}
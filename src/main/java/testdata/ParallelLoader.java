@@ -0,0 +1,186 @@
+package testdata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * ParallelLoader seeds a dataset spanning many tables by fanning tables out
+ * across worker threads, each writing over its own pooled connection. A table
+ * is always written by a single worker, so rows within a table keep their order.
+ * Inside an isolated scope the tables are loaded one after another on the
+ * calling thread, so they join the scope's transaction.
+ */
+public class ParallelLoader {
+    private static final Logger LOGGER = Logger.getLogger(ParallelLoader.class.getName());
+
+    /**
+     * Throughput of one worker during a load
+     */
+    public static class WorkerStats {
+        private final String worker;
+        private final List<String> tables = new ArrayList<>();
+        private long rows;
+        private long nanos;
+
+        WorkerStats(String worker) {
+            this.worker = worker;
+        }
+
+        public String getWorker() {
+            return worker;
+        }
+
+        public List<String> getTables() {
+            return Collections.unmodifiableList(tables);
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        public double getRowsPerSecond() {
+            return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d rows in %d ms (%.0f rows/s) %s",
+                    worker, rows, getElapsedMillis(), getRowsPerSecond(), tables);
+        }
+    }
+
+    /**
+     * Outcome of a load: per-worker figures and the overall rate
+     */
+    public static class LoadReport {
+        private final List<WorkerStats> workers;
+        private final long elapsedNanos;
+
+        LoadReport(List<WorkerStats> workers, long elapsedNanos) {
+            this.workers = Collections.unmodifiableList(workers);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<WorkerStats> getWorkers() {
+            return workers;
+        }
+
+        public long getTotalRows() {
+            long total = 0;
+            for (WorkerStats stats : workers) {
+                total += stats.rows;
+            }
+            return total;
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : getTotalRows() * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder(String.format("Loaded %d rows in %d ms (%.0f rows/s)",
+                    getTotalRows(), getElapsedMillis(), getRowsPerSecond()));
+            for (WorkerStats stats : workers) {
+                out.append(System.lineSeparator()).append("  ").append(stats);
+            }
+            return out.toString();
+        }
+    }
+
+    private final TestDataManager manager;
+    private final int parallelism;
+
+    /**
+     * @param manager Connected manager, in pooled mode for real parallelism
+     * @param parallelism Worker count; clamped to the manager's connection count
+     */
+    public ParallelLoader(TestDataManager manager, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.manager = manager;
+        this.parallelism = Math.min(parallelism, manager.getMaxConnections());
+    }
+
+    /**
+     * Loads every table of the dataset. Tables are taken largest first so the
+     * slowest ones start early; each is written in input order and committed in chunks.
+     * @param dataset Rows per table name
+     * @return Per-worker and overall throughput
+     * @throws SQLException if any table fails; tables not yet started are skipped
+     */
+    public LoadReport load(Map<String, List<Map<String, Object>>> dataset) throws SQLException {
+        List<Map.Entry<String, List<Map<String, Object>>>> tables = new ArrayList<>(dataset.entrySet());
+        tables.sort(Comparator.comparingInt(
+                (Map.Entry<String, List<Map<String, Object>>> e) -> e.getValue().size()).reversed());
+        ConcurrentLinkedQueue<Map.Entry<String, List<Map<String, Object>>>> pending =
+                new ConcurrentLinkedQueue<>(tables);
+
+        int workerCount = manager.inIsolatedScope() ? 1 : Math.max(1, Math.min(parallelism, tables.size()));
+        List<WorkerStats> stats = new ArrayList<>(workerCount);
+        ExecutorService executor = ParallelTasks.newExecutor(manager, "ParallelLoader", workerCount);
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(workerCount);
+        try {
+            for (int w = 0; w < workerCount; w++) {
+                WorkerStats worker = new WorkerStats("worker-" + (w + 1));
+                stats.add(worker);
+                futures.add(executor.submit(() -> {
+                    runWorker(worker, pending);
+                    return null;
+                }));
+            }
+            ParallelTasks.awaitAll(futures, "parallel load");
+        } catch (SQLException e) {
+            LOGGER.severe("Parallel load failed: " + e.getMessage());
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LoadReport report = new LoadReport(stats, System.nanoTime() - start);
+        LOGGER.info(report.toString());
+        return report;
+    }
+
+    private void runWorker(WorkerStats worker,
+                           ConcurrentLinkedQueue<Map.Entry<String, List<Map<String, Object>>>> pending)
+            throws SQLException {
+        Map.Entry<String, List<Map<String, Object>>> table;
+        while ((table = pending.poll()) != null) {
+            long tableStart = System.nanoTime();
+            Connection conn = manager.acquireConnection();
+            try {
+                worker.rows += manager.insertInOrder(conn, table.getKey(), table.getValue());
+            } catch (SQLException | RuntimeException e) {
+                // Stop the other workers from picking up new tables
+                pending.clear();
+                throw e;
+            } finally {
+                manager.releaseConnection(conn);
+            }
+            worker.nanos += System.nanoTime() - tableStart;
+            worker.tables.add(table.getKey());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package testdata;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared plumbing for the loaders that fan work out over pooled connections.
+ */
+final class ParallelTasks {
+
+    private ParallelTasks() {
+    }
+
+    /**
+     * @param name Prefix for the worker thread names
+     * @param threads Number of worker threads
+     * @return Fixed pool of daemon threads
+     */
+    static ExecutorService newExecutor(String name, int threads) {
+        AtomicInteger threadIds = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, name + "-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Creates the executor for work that writes through the manager. While an
+     * isolated scope is open on the calling thread, only that thread can use the
+     * scope's connection, so the tasks then run inline, one after another.
+     * @param manager Manager the tasks write through
+     * @param name Prefix for the worker thread names
+     * @param threads Number of worker threads outside a scope
+     * @return Fixed pool of daemon threads, or an executor running tasks on the caller
+     */
+    static ExecutorService newExecutor(TestDataManager manager, String name, int threads) {
+        return manager.inIsolatedScope() ? new CallerRunsExecutor() : newExecutor(name, threads);
+    }
+
+    /**
+     * Waits for every task, then rethrows the first failure with the others attached as suppressed
+     * @param futures Tasks to wait for
+     * @param what Description of the work, used in error messages
+     * @throws SQLException if any task failed or the wait was interrupted
+     */
+    static void awaitAll(List<? extends Future<?>> futures, String what) throws SQLException {
+        SQLException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for " + what, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                SQLException sqlFailure = cause instanceof SQLException
+                        ? (SQLException) cause
+                        : new SQLException(what + " failed", cause);
+                if (failure == null) {
+                    failure = sqlFailure;
+                } else {
+                    failure.addSuppressed(sqlFailure);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Runs each task on the submitting thread before submit returns
+     */
+    private static final class CallerRunsExecutor extends AbstractExecutorService {
+        private volatile boolean shutdown;
+
+        @Override
+        public void execute(Runnable command) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor is shut down");
+            }
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package testdata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * QuerySpec describes a SELECT with a column projection, typed predicates,
+ * ordering and a row limit, for the cases the equality-only
+ * retrieveTestData cannot express. Run it with TestDataManager.query.
+ * <p>
+ * A spec compiles to prepared SQL that is cached by shape, so specs that
+ * differ only in their values share one statement. IN lists are padded to
+ * the next power of two, which keeps the number of shapes small.
+ * <pre>
+ * manager.query(QuerySpec.from("orders")
+ *         .select("id", "status")
+ *         .where("created_at", QuerySpec.Op.GE, since)
+ *         .whereIn("status", List.of("NEW", "PAID"))
+ *         .orderByDescending("id")
+ *         .limit(100));
+ * </pre>
+ */
+public class QuerySpec {
+
+    /**
+     * Predicate operators
+     */
+    public enum Op {
+        EQ("="),
+        NE("<>"),
+        LT("<"),
+        LE("<="),
+        GT(">"),
+        GE(">="),
+        LIKE("LIKE"),
+        BETWEEN("BETWEEN"),
+        IN("IN"),
+        IS_NULL("IS NULL"),
+        IS_NOT_NULL("IS NOT NULL");
+
+        private final String sql;
+
+        Op(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    private static final class Predicate {
+        final String column;
+        final Op op;
+        final Object[] values;
+
+        Predicate(String column, Op op, Object... values) {
+            this.column = column;
+            this.op = op;
+            this.values = values;
+        }
+
+        /**
+         * @return Placeholders the predicate binds; IN lists are padded to their bucket
+         */
+        int placeholders() {
+            switch (op) {
+                case IS_NULL:
+                case IS_NOT_NULL:
+                    return 0;
+                case BETWEEN:
+                    return 2;
+                case IN:
+                    return values.length == 0 ? 0 : inListBucket(values.length);
+                default:
+                    return 1;
+            }
+        }
+    }
+
+    private final String table;
+    private final List<String> projection = new ArrayList<>();
+    private final List<Predicate> predicates = new ArrayList<>();
+    private final List<String> orderBy = new ArrayList<>();
+    private int limit = -1;
+
+    private QuerySpec(String table) {
+        this.table = table;
+    }
+
+    /**
+     * @param table Table to query
+     * @return Spec selecting every column and row of the table
+     */
+    public static QuerySpec from(String table) {
+        return new QuerySpec(table);
+    }
+
+    /**
+     * @param columns Columns to return, in order; with none, every column is returned
+     * @return This spec
+     */
+    public QuerySpec select(String... columns) {
+        Collections.addAll(projection, columns);
+        return this;
+    }
+
+    /**
+     * Adds a comparison; EQ with a null value becomes IS NULL
+     * @param column Column to compare
+     * @param op One of EQ, NE, LT, LE, GT, GE or LIKE
+     * @param value Value to compare with
+     * @return This spec
+     */
+    public QuerySpec where(String column, Op op, Object value) {
+        switch (op) {
+            case BETWEEN:
+            case IN:
+            case IS_NULL:
+            case IS_NOT_NULL:
+                throw new IllegalArgumentException(op + " has its own where method");
+            default:
+        }
+        if (value == null && (op == Op.EQ || op == Op.NE)) {
+            predicates.add(new Predicate(column, op == Op.EQ ? Op.IS_NULL : Op.IS_NOT_NULL));
+        } else {
+            predicates.add(new Predicate(column, op, value));
+        }
+        return this;
+    }
+
+    /**
+     * @see #where(String, Op, Object)
+     */
+    public QuerySpec whereEquals(String column, Object value) {
+        return where(column, Op.EQ, value);
+    }
+
+    /**
+     * @param column Column to match
+     * @param pattern LIKE pattern with % and _ wildcards
+     * @return This spec
+     */
+    public QuerySpec whereLike(String column, String pattern) {
+        return where(column, Op.LIKE, pattern);
+    }
+
+    /**
+     * @param column Column to compare
+     * @param low Lower bound, inclusive
+     * @param high Upper bound, inclusive
+     * @return This spec
+     */
+    public QuerySpec whereBetween(String column, Object low, Object high) {
+        predicates.add(new Predicate(column, Op.BETWEEN, low, high));
+        return this;
+    }
+
+    /**
+     * @param column Column to match
+     * @param values Accepted values; an empty collection matches no rows
+     * @return This spec
+     */
+    public QuerySpec whereIn(String column, Collection<?> values) {
+        predicates.add(new Predicate(column, Op.IN, values.toArray()));
+        return this;
+    }
+
+    public QuerySpec whereNull(String column) {
+        predicates.add(new Predicate(column, Op.IS_NULL));
+        return this;
+    }
+
+    public QuerySpec whereNotNull(String column) {
+        predicates.add(new Predicate(column, Op.IS_NOT_NULL));
+        return this;
+    }
+
+    public QuerySpec orderBy(String column) {
+        orderBy.add(column);
+        return this;
+    }
+
+    public QuerySpec orderByDescending(String column) {
+        orderBy.add(column + " DESC");
+        return this;
+    }
+
+    /**
+     * @param limit Maximum rows to return, at least 1; setMaxRows treats 0 as no limit
+     * @return This spec
+     */
+    public QuerySpec limit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    String getTable() {
+        return table;
+    }
+
+    /**
+     * @return Row limit, or -1 for none
+     */
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param dialect Dialect the SQL is generated for
+     * @return Cache key identifying the statement shape
+     */
+    StatementCache.Key shape(SqlDialect dialect) {
+        List<String> signature = new ArrayList<>(predicates.size() + orderBy.size() + 1);
+        for (Predicate predicate : predicates) {
+            signature.add(predicate.column + " " + predicate.op.name()
+                    + (predicate.op == Op.IN ? " " + predicate.placeholders() : ""));
+        }
+        for (String order : orderBy) {
+            signature.add("ORDER BY " + order);
+        }
+        if (limit >= 0) {
+            signature.add(dialect.limitClause() != null ? "LIMIT ?" : "MAX ROWS");
+        }
+        return new StatementCache.Key("QUERY", table, new ArrayList<>(projection), signature);
+    }
+
+    /**
+     * @param dialect Dialect the SQL is generated for
+     * @return SQL text for this spec's shape
+     */
+    String toSql(SqlDialect dialect) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        sql.append(projection.isEmpty() ? "*" : String.join(", ", projection));
+        sql.append(" FROM ").append(table);
+        for (int i = 0; i < predicates.size(); i++) {
+            Predicate predicate = predicates.get(i);
+            sql.append(i == 0 ? " WHERE " : " AND ");
+            switch (predicate.op) {
+                case IS_NULL:
+                case IS_NOT_NULL:
+                    sql.append(predicate.column).append(' ').append(predicate.op.sql);
+                    break;
+                case BETWEEN:
+                    sql.append(predicate.column).append(" BETWEEN ? AND ?");
+                    break;
+                case IN: {
+                    int placeholders = predicate.placeholders();
+                    if (placeholders == 0) {
+                        sql.append("1 = 0");
+                        break;
+                    }
+                    sql.append(predicate.column).append(" IN (");
+                    for (int p = 0; p < placeholders; p++) {
+                        sql.append(p == 0 ? "?" : ", ?");
+                    }
+                    sql.append(')');
+                    break;
+                }
+                default:
+                    sql.append(predicate.column).append(' ').append(predicate.op.sql).append(" ?");
+            }
+        }
+        if (!orderBy.isEmpty()) {
+            sql.append(" ORDER BY ").append(String.join(", ", orderBy));
+        }
+        if (limit >= 0 && dialect.limitClause() != null) {
+            sql.append(dialect.limitClause());
+        }
+        return sql.toString();
+    }
+
+    /**
+     * @param dialect Dialect the SQL is generated for
+     * @return Bind values in placeholder order, IN lists padded by repeating their last value
+     */
+    List<Object> parameters(SqlDialect dialect) {
+        List<Object> params = new ArrayList<>();
+        for (Predicate predicate : predicates) {
+            int placeholders = predicate.placeholders();
+            for (int p = 0; p < placeholders; p++) {
+                params.add(predicate.values[Math.min(p, predicate.values.length - 1)]);
+            }
+        }
+        if (limit >= 0 && dialect.limitClause() != null) {
+            params.add(limit);
+        }
+        if (params.size() > dialect.getMaxBindParameters()) {
+            throw new IllegalArgumentException("Query on " + table + " needs " + params.size()
+                    + " parameters; " + dialect + " accepts " + dialect.getMaxBindParameters());
+        }
+        return params;
+    }
+
+    /**
+     * Rounds an IN-list length up to a power of two, so lists of 5 to 8 values
+     * share one statement shape
+     * @param size Number of values, at least 1
+     * @return Placeholders to generate
+     */
+    static int inListBucket(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+}
@@ -0,0 +1,247 @@
+package testdata;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ResultCache keeps the results of retrieveTestData and
+ * retrieveTestDataCompact in memory, keyed by table and conditions, so
+ * repeated reads of reference data skip the database.
+ * <p>
+ * Entries are evicted least recently used once their total weight, counted
+ * in result cells, exceeds the bound, and expire after a fixed time. Every
+ * write through the manager bumps a version counter for its table; entries
+ * remember the version they were read under and are discarded on lookup once
+ * it moves, so a write invalidates a table without scanning the cache. Reads
+ * inside an isolated scope bypass the cache, as do reads with an array
+ * condition value, which would be keyed by identity. Writes made outside the
+ * manager are not seen; call invalidate for those tables.
+ * <p>
+ * The manager stores and hands out copies of cached results, duplicating row
+ * arrays, byte arrays and date values, so callers may modify what they get.
+ * <pre>
+ * manager.setResultCache(new ResultCache(1_000_000, 5, TimeUnit.MINUTES));
+ * </pre>
+ */
+public class ResultCache {
+
+    private static final class Key {
+        final String table;
+        final Map<String, Object> conditions;
+        final int hash;
+
+        Key(String table, Map<String, Object> conditions) {
+            this.table = table;
+            this.conditions = conditions;
+            this.hash = table.hashCode() * 31 + conditions.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && table.equals(other.table) && conditions.equals(other.conditions);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+        final ResultTable result;
+        final long version;
+        final long expiresAt;
+        final long weight;
+
+        Entry(ResultTable result, long version, long expiresAt, long weight) {
+            this.result = result;
+            this.version = version;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+    }
+
+    private final long maxWeight;
+    private final long ttlNanos;
+    // Access-ordered, so iteration starts at the least recently used entry; guarded by this
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long weight;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxWeight Result cells (rows times columns) kept in total
+     * @param ttl Time an entry stays valid; 0 keeps entries until evicted or invalidated
+     * @param unit Unit of ttl
+     */
+    public ResultCache(long maxWeight, long ttl, TimeUnit unit) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be at least 1");
+        }
+        if (ttl < 0) {
+            throw new IllegalArgumentException("ttl must not be negative");
+        }
+        this.maxWeight = maxWeight;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * @param table Table name as passed to the manager
+     * @param conditions Conditions of the read
+     * @return Cached result, or null if absent, expired or invalidated
+     */
+    ResultTable get(String table, Map<String, Object> conditions) {
+        String normalized = normalize(table);
+        Key key = new Key(normalized, conditions);
+        long version = version(normalized);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.version == version && (ttlNanos == 0 || System.nanoTime() - entry.expiresAt < 0)) {
+                    hits.increment();
+                    return entry.result;
+                }
+                entries.remove(key);
+                weight -= entry.weight;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the table's current version; capture it before reading so a
+     * write that lands during the read makes the stored result stale
+     * @param table Table name as passed to the manager
+     * @return Version to pass to put
+     */
+    long version(String table) {
+        return versions.computeIfAbsent(normalize(table), k -> new AtomicLong()).get();
+    }
+
+    /**
+     * Stores a result read under the given version, unless the table has been written since
+     */
+    void put(String table, Map<String, Object> conditions, long version, ResultTable result) {
+        String normalized = normalize(table);
+        long entryWeight = Math.max(1, (long) result.size() * Math.max(1, result.getColumns().size()));
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        // Copy so later changes to the caller's map cannot alter the key
+        Key key = new Key(normalized, new HashMap<>(conditions));
+        Entry entry = new Entry(result, version, System.nanoTime() + ttlNanos, entryWeight);
+        synchronized (this) {
+            if (version(normalized) != version) {
+                return;
+            }
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entryWeight;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (weight > maxWeight && eldest.hasNext()) {
+                weight -= eldest.next().weight;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Discards every cached result for a table. The manager calls this after
+     * each of its writes; call it directly after writing outside the manager.
+     * @param table Table name
+     */
+    public void invalidate(String table) {
+        versions.computeIfAbsent(normalize(table), k -> new AtomicLong()).incrementAndGet();
+        invalidations.increment();
+    }
+
+    /**
+     * Discards every cached result
+     */
+    public void invalidateAll() {
+        // Bumping versions as well stops reads already in flight from storing their results
+        for (AtomicLong version : versions.values()) {
+            version.incrementAndGet();
+        }
+        synchronized (this) {
+            entries.clear();
+            weight = 0;
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * @param conditions Conditions of a read
+     * @return Whether the conditions can form a key; arrays hash and compare by identity
+     */
+    static boolean isCacheable(Map<String, Object> conditions) {
+        for (Object value : conditions.values()) {
+            if (value != null && value.getClass().isArray()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String table) {
+        return table.toUpperCase(Locale.ROOT);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Entries dropped because the weight bound was reached
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Result cells currently held, including entries not yet found stale
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ResultCache[hits=%d misses=%d evictions=%d invalidations=%d, entries=%d weight=%d/%d]",
+                getHits(), getMisses(), getEvictions(), getInvalidations(), size(), getWeight(), maxWeight);
+    }
+}
@@ -0,0 +1,205 @@
+package testdata;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * ResultTable holds query results compactly: the column names are stored once
+ * in a shared index, and each row is a plain Object[] in column order.
+ * Rows can still be read as Maps through lightweight views that copy nothing.
+ */
+public class ResultTable extends AbstractList<Map<String, Object>> {
+    private final String[] columns;
+    private final Map<String, Integer> columnIndex;
+    private final List<Object[]> rows;
+
+    /**
+     * @param columns Column names in result order
+     * @param rows Row values, each in the order of columns
+     */
+    public ResultTable(String[] columns, List<Object[]> rows) {
+        this.columns = columns;
+        this.rows = rows;
+        Map<String, Integer> index = new HashMap<>(columns.length * 2);
+        for (int i = 0; i < columns.length; i++) {
+            index.putIfAbsent(columns[i], i);
+        }
+        this.columnIndex = index;
+    }
+
+    /**
+     * Reads the column names from result set metadata
+     * @param metaData Metadata of the result set the table is built from
+     * @return Column names in result order
+     * @throws SQLException if metadata cannot be read
+     */
+    static String[] columnNames(ResultSetMetaData metaData) throws SQLException {
+        String[] names = new String[metaData.getColumnCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = metaData.getColumnName(i + 1);
+        }
+        return names;
+    }
+
+    /**
+     * @return Column names in result order
+     */
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(Arrays.asList(columns));
+    }
+
+    /**
+     * @param column Column name
+     * @return Position of the column, or -1 if the result has no such column
+     */
+    public int indexOf(String column) {
+        Integer index = columnIndex.get(column);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param row Row position
+     * @param column Column position
+     * @return Value of the cell
+     */
+    public Object getValue(int row, int column) {
+        return rows.get(row)[column];
+    }
+
+    /**
+     * @param row Row position
+     * @param column Column name
+     * @return Value of the cell
+     */
+    public Object getValue(int row, String column) {
+        int index = indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown column: " + column);
+        }
+        return rows.get(row)[index];
+    }
+
+    /**
+     * @param row Row position
+     * @return Raw values of the row; callers must not modify the array
+     */
+    public Object[] getRowValues(int row) {
+        return rows.get(row);
+    }
+
+    /**
+     * Copies the table so it shares nothing mutable with this one: row arrays,
+     * byte arrays and Date, Time and Timestamp values are duplicated
+     * @return Independent table with the same columns and values
+     */
+    ResultTable copy() {
+        List<Object[]> copied = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Object[] values = row.clone();
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value instanceof byte[]) {
+                    values[i] = ((byte[]) value).clone();
+                } else if (value instanceof java.util.Date) {
+                    // Covers java.sql.Date, Time and Timestamp, whose clone keeps the nanos
+                    values[i] = ((java.util.Date) value).clone();
+                }
+            }
+            copied.add(values);
+        }
+        return new ResultTable(columns, copied);
+    }
+
+    /**
+     * Copies the rows into the HashMap-per-row form returned by retrieveTestData
+     * @return Independent list of mutable row maps
+     */
+    public List<Map<String, Object>> toMaps() {
+        List<Map<String, Object>> maps = new ArrayList<>(rows.size());
+        for (int r = 0; r < rows.size(); r++) {
+            maps.add(new HashMap<>(get(r)));
+        }
+        return maps;
+    }
+
+    /**
+     * @param index Row position
+     * @return Read-only Map view of the row, keyed by column name
+     */
+    @Override
+    public Map<String, Object> get(int index) {
+        return new RowView(rows.get(index));
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    private final class RowView extends AbstractMap<String, Object> {
+        private final Object[] values;
+
+        RowView(Object[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Integer index = columnIndex.get(key);
+            return index == null ? null : values[index];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return columnIndex.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return columns.length;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Object>>() {
+                @Override
+                public Iterator<Map.Entry<String, Object>> iterator() {
+                    return new Iterator<Map.Entry<String, Object>>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < columns.length;
+                        }
+
+                        @Override
+                        public Map.Entry<String, Object> next() {
+                            if (next >= columns.length) {
+                                throw new NoSuchElementException();
+                            }
+                            int i = next++;
+                            return new AbstractMap.SimpleImmutableEntry<>(columns[i], values[i]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return columns.length;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package testdata;
+
+import java.util.Map;
+
+/**
+ * RowUpdate pairs the column values to set with the conditions selecting the
+ * rows, as one item of TestDataManager.updateTestDataBatch.
+ */
+public class RowUpdate {
+    private final Map<String, Object> updateData;
+    private final Map<String, Object> conditions;
+
+    /**
+     * @param updateData Map of columns to update
+     * @param conditions Map of conditions for the update
+     */
+    public RowUpdate(Map<String, Object> updateData, Map<String, Object> conditions) {
+        if (updateData.isEmpty() || conditions.isEmpty()) {
+            throw new IllegalArgumentException("Update requires at least one column and one condition");
+        }
+        this.updateData = updateData;
+        this.conditions = conditions;
+    }
+
+    public Map<String, Object> getUpdateData() {
+        return updateData;
+    }
+
+    public Map<String, Object> getConditions() {
+        return conditions;
+    }
+}
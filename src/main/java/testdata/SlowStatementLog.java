@@ -0,0 +1,261 @@
+package testdata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * SlowStatementLog aggregates statements that run longer than a threshold
+ * by SQL fingerprint, so the statements responsible for slow seeding can be
+ * found among thousands of generated variants.
+ * <p>
+ * A fingerprint is the SQL with literals replaced by '?', case normalised,
+ * whitespace kept only between words, and placeholder lists and multi-row
+ * VALUES tuples collapsed, so "IN (?, ?, ?)" and a 500-row INSERT fall into
+ * the same bucket as their smaller siblings. Aggregation uses a ConcurrentHashMap of LongAdders and
+ * LongAccumulators and takes no locks. Statements under the threshold cost a
+ * single comparison. A streamed query is timed until its cursor opens, not
+ * while the caller consumes its rows.
+ * <pre>
+ * SlowStatementLog slow = new SlowStatementLog(50, TimeUnit.MILLISECONDS);
+ * slow.startReporting(30, TimeUnit.SECONDS, 10);
+ * manager.setSlowStatementLog(slow);
+ * </pre>
+ */
+public class SlowStatementLog implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(SlowStatementLog.class.getName());
+
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern TUPLE_LIST = Pattern.compile("\\(\\?\\+\\)(?:\\s*,\\s*\\(\\?\\+\\))+");
+
+    private final long thresholdNanos;
+    private final ConcurrentMap<String, Aggregate> aggregates = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+
+    /**
+     * @param threshold Minimum execution time for a statement to be recorded
+     * @param unit Unit of threshold
+     */
+    public SlowStatementLog(long threshold, TimeUnit unit) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative");
+        }
+        this.thresholdNanos = unit.toNanos(threshold);
+    }
+
+    /**
+     * Records a statement if it exceeded the threshold
+     * @param sql Statement text
+     * @param nanos Execution time
+     */
+    void record(String sql, long nanos) {
+        if (nanos < thresholdNanos) {
+            return;
+        }
+        Aggregate aggregate = aggregates.computeIfAbsent(fingerprint(sql), Aggregate::new);
+        aggregate.count.increment();
+        aggregate.totalNanos.add(nanos);
+        aggregate.maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * @param limit Maximum number of entries
+     * @return Slow fingerprints with the largest total time first
+     */
+    public List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(aggregates.size());
+        for (Aggregate aggregate : aggregates.values()) {
+            entries.add(new Entry(aggregate.fingerprint, aggregate.count.sum(), aggregate.totalNanos.sum(),
+                    aggregate.maxNanos.get()));
+        }
+        entries.sort(Comparator.comparingLong(Entry::getTotalNanos).reversed());
+        return Collections.unmodifiableList(entries.size() > limit ? entries.subList(0, limit) : entries);
+    }
+
+    /**
+     * Clears the aggregated statements
+     */
+    public void reset() {
+        aggregates.clear();
+    }
+
+    /**
+     * Logs the top fingerprints at a fixed rate on a daemon thread
+     * @param period Time between reports
+     * @param unit Unit of period
+     * @param limit Fingerprints per report
+     */
+    public synchronized void startReporting(long period, TimeUnit unit, int limit) {
+        stopReporting();
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SlowStatementLog-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(() -> report(limit), period, period, unit);
+    }
+
+    /**
+     * Stops periodic reporting, if started
+     */
+    public synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+    }
+
+    /**
+     * Logs the top fingerprints once
+     * @param limit Fingerprints to include
+     */
+    public void report(int limit) {
+        List<Entry> entries = top(limit);
+        if (entries.isEmpty()) {
+            return;
+        }
+        StringBuilder out = new StringBuilder("Slowest statements over ")
+                .append(TimeUnit.NANOSECONDS.toMillis(thresholdNanos)).append(" ms:");
+        for (Entry entry : entries) {
+            out.append("\n  ").append(entry);
+        }
+        LOGGER.info(out.toString());
+    }
+
+    @Override
+    public void close() {
+        stopReporting();
+    }
+
+    /**
+     * Normalises a statement so that variants differing only in literals,
+     * list lengths, row counts, case or spacing share one fingerprint
+     * @param sql Statement text
+     * @return Fingerprint
+     */
+    static String fingerprint(String sql) {
+        StringBuilder out = new StringBuilder(Math.min(sql.length(), 256));
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // String literal, with '' as an escaped quote
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                out.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                // Keep a space only where it separates two words, so "id = ?" and "id=?" match
+                if (endsWithIdentifier(out) && i < length && isWordChar(sql.charAt(i))) {
+                    out.append(' ');
+                }
+            } else if (Character.isDigit(c) && !endsWithIdentifier(out)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else if (Character.isLetter(c) || c == '_') {
+                int start = i;
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_'
+                        || sql.charAt(i) == '$')) {
+                    i++;
+                }
+                out.append(sql.substring(start, i).toLowerCase(Locale.ROOT));
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return collapseLists(out.toString());
+    }
+
+    private static boolean endsWithIdentifier(StringBuilder out) {
+        return out.length() > 0 && isWordChar(out.charAt(out.length() - 1));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '?' || c == '\'' || c == '$';
+    }
+
+    /**
+     * Collapses "(?, ?, ?)" to "(?+)" and repeated "(?+), (?+)" tuples to one
+     */
+    private static String collapseLists(String sql) {
+        String collapsed = PLACEHOLDER_LIST.matcher(sql).replaceAll("(?+)");
+        return TUPLE_LIST.matcher(collapsed).replaceAll("(?+)");
+    }
+
+    /**
+     * Aggregated timings of one fingerprint
+     */
+    public static final class Entry {
+        private final String fingerprint;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        Entry(String fingerprint, long count, long totalNanos, long maxNanos) {
+            this.fingerprint = fingerprint;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d total=%.1fms max=%.1fms  %s",
+                    count, totalNanos / 1e6, maxNanos / 1e6, fingerprint);
+        }
+    }
+
+    private static final class Aggregate {
+        final String fingerprint;
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Aggregate(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
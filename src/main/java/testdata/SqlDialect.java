@@ -0,0 +1,115 @@
+package testdata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * SqlDialect captures the per-database limits and syntax differences that
+ * TestDataManager needs when it generates SQL.
+ */
+public enum SqlDialect {
+    POSTGRESQL(65535, Integer.MAX_VALUE, true),
+    MYSQL(65535, Integer.MAX_VALUE, true),
+    // SQL Server also rejects a VALUES list with more than 1000 row constructors
+    SQLSERVER(2100, 1000, true),
+    H2(65535, Integer.MAX_VALUE, true),
+    SQLITE(999, Integer.MAX_VALUE, true),
+    ORACLE(65535, 1, false),
+    GENERIC(1000, 1, false);
+
+    private final int maxBindParameters;
+    private final int maxRowsPerInsert;
+    private final boolean multiRowValues;
+
+    SqlDialect(int maxBindParameters, int maxRowsPerInsert, boolean multiRowValues) {
+        this.maxBindParameters = maxBindParameters;
+        this.maxRowsPerInsert = maxRowsPerInsert;
+        this.multiRowValues = multiRowValues;
+    }
+
+    /**
+     * @return Largest number of bind parameters the driver accepts in one statement
+     */
+    public int getMaxBindParameters() {
+        return maxBindParameters;
+    }
+
+    /**
+     * @return Whether INSERT ... VALUES (...),(...) is supported
+     */
+    public boolean supportsMultiRowValues() {
+        return multiRowValues;
+    }
+
+    /**
+     * Works out how many rows fit in one multi-row INSERT statement
+     * @param columnCount Columns per row
+     * @param limit Upper bound requested by the caller
+     * @return Rows per statement, at least 1
+     */
+    public int rowsPerInsert(int columnCount, int limit) {
+        int byParameters = maxBindParameters / Math.max(1, columnCount);
+        return Math.max(1, Math.min(limit, Math.min(byParameters, maxRowsPerInsert)));
+    }
+
+    /**
+     * Translates a requested fetch size into the value that makes this driver stream rows
+     * @param requested Rows per round trip the caller asked for
+     * @return Fetch size to pass to Statement.setFetchSize
+     */
+    public int streamingFetchSize(int requested) {
+        // MySQL Connector/J only streams row by row when given Integer.MIN_VALUE
+        return this == MYSQL ? Integer.MIN_VALUE : requested;
+    }
+
+    /**
+     * @return Whether the driver only honours the fetch size inside a transaction
+     */
+    public boolean cursorRequiresTransaction() {
+        return this == POSTGRESQL;
+    }
+
+    /**
+     * @return Clause appended after ORDER BY that caps the row count through one
+     *         bind parameter, or null where only Statement.setMaxRows is portable
+     */
+    public String limitClause() {
+        switch (this) {
+            case POSTGRESQL:
+            case MYSQL:
+            case H2:
+            case SQLITE:
+                return " LIMIT ?";
+            case ORACLE:
+                return " FETCH FIRST ? ROWS ONLY";
+            default:
+                // SQL Server's OFFSET/FETCH needs an ORDER BY, and TOP goes before the column list
+                return null;
+        }
+    }
+
+    /**
+     * Detects the dialect from the connection's database product name
+     * @param conn Open connection
+     * @return Matching dialect, or GENERIC when the product is not recognised
+     * @throws SQLException if metadata cannot be read
+     */
+    public static SqlDialect detect(Connection conn) throws SQLException {
+        String product = conn.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        if (product.contains("postgres")) {
+            return POSTGRESQL;
+        } else if (product.contains("mysql") || product.contains("mariadb")) {
+            return MYSQL;
+        } else if (product.contains("microsoft") || product.contains("sql server")) {
+            return SQLSERVER;
+        } else if (product.equals("h2")) {
+            return H2;
+        } else if (product.contains("sqlite")) {
+            return SQLITE;
+        } else if (product.contains("oracle")) {
+            return ORACLE;
+        }
+        return GENERIC;
+    }
+}
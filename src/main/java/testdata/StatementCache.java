@@ -0,0 +1,308 @@
+package testdata;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * StatementCache remembers the SQL text generated for each statement shape and,
+ * per connection, the PreparedStatement built from it, so repeated calls with
+ * the same table and column sets skip both SQL building and statement parsing.
+ * <p>
+ * The SQL level is read on every CRUD call from every thread, so it is a
+ * lock-free ConcurrentHashMap that drops an arbitrary entry when full; SQL
+ * text is cheap to rebuild. The statement level is an LRU map per connection,
+ * found through a copy-on-write table so lookups take no shared lock.
+ */
+public class StatementCache {
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getName());
+
+    /**
+     * Identifies one statement shape: operation, table, ordered columns and ordered condition columns
+     */
+    public static final class Key {
+        private final String operation;
+        private final String table;
+        private final List<String> columns;
+        private final List<String> conditionColumns;
+        private final int hash;
+
+        public Key(String operation, String table, List<String> columns, List<String> conditionColumns) {
+            this.operation = operation;
+            this.table = table;
+            this.columns = columns;
+            this.conditionColumns = conditionColumns;
+            this.hash = ((operation.hashCode() * 31 + table.hashCode()) * 31 + columns.hashCode()) * 31
+                    + conditionColumns.hashCode();
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash
+                    && operation.equals(other.operation)
+                    && table.equals(other.table)
+                    && columns.equals(other.columns)
+                    && conditionColumns.equals(other.conditionColumns);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return operation + " " + table + " " + columns + " " + conditionColumns;
+        }
+    }
+
+    /**
+     * A statement handed out by prepare. Closing the lease returns a cached
+     * statement to the cache, or closes a statement that was not cached.
+     */
+    public static final class Lease implements AutoCloseable {
+        private final PreparedStatement statement;
+        private final CachedStatement cached;
+
+        private Lease(PreparedStatement statement, CachedStatement cached) {
+            this.statement = statement;
+            this.cached = cached;
+        }
+
+        public PreparedStatement statement() {
+            return statement;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (cached == null) {
+                statement.close();
+                return;
+            }
+            synchronized (cached) {
+                cached.inUse = false;
+                if (cached.evicted) {
+                    statement.close();
+                } else {
+                    statement.clearParameters();
+                }
+            }
+        }
+    }
+
+    private static final class CachedStatement {
+        final PreparedStatement statement;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    private final int maxSqlEntries;
+    private final int maxStatementsPerConnection;
+    private final Map<Key, String> sqlCache = new ConcurrentHashMap<>();
+    // Replaced, never mutated, so readers need no lock; writers hold the cache's monitor
+    private volatile Map<Connection, Map<Key, CachedStatement>> statements = new IdentityHashMap<>();
+
+    private final LongAdder sqlHits = new LongAdder();
+    private final LongAdder sqlMisses = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSqlEntries Statement shapes whose SQL text is kept
+     * @param maxStatementsPerConnection Prepared statements kept open per connection; 0 disables statement caching
+     */
+    public StatementCache(int maxSqlEntries, int maxStatementsPerConnection) {
+        this.maxSqlEntries = maxSqlEntries;
+        this.maxStatementsPerConnection = maxStatementsPerConnection;
+    }
+
+    /**
+     * Returns the cached SQL text for a shape, building it on a miss
+     * @param key Statement shape
+     * @param builder Builds the SQL text when it is not cached
+     * @return SQL text
+     */
+    public String sql(Key key, Supplier<String> builder) {
+        String sql = sqlCache.get(key);
+        if (sql != null) {
+            sqlHits.increment();
+            return sql;
+        }
+        sqlMisses.increment();
+        sql = builder.get();
+        if (sqlCache.putIfAbsent(key, sql) == null && sqlCache.size() > maxSqlEntries) {
+            Iterator<Key> keys = sqlCache.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+                evictions.increment();
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Leases a prepared statement for a shape on the given connection, reusing an
+     * idle cached statement when one exists
+     * @param conn Connection the statement belongs to
+     * @param key Statement shape
+     * @param sql SQL text for the shape
+     * @param returnKeys Whether the statement must return generated keys
+     * @return Lease to close once the statement is no longer needed
+     * @throws SQLException if the statement cannot be prepared
+     */
+    public Lease prepare(Connection conn, Key key, String sql, boolean returnKeys) throws SQLException {
+        if (maxStatementsPerConnection <= 0) {
+            return new Lease(newStatement(conn, sql, returnKeys), null);
+        }
+
+        Map<Key, CachedStatement> perConnection = statements.get(conn);
+        if (perConnection == null) {
+            perConnection = addConnection(conn);
+        }
+        synchronized (perConnection) {
+            CachedStatement cached = perConnection.get(key);
+            if (cached != null) {
+                synchronized (cached) {
+                    if (!cached.inUse) {
+                        cached.inUse = true;
+                        statementHits.increment();
+                        return new Lease(cached.statement, cached);
+                    }
+                }
+                // Same shape already open on this connection (e.g. a live cursor); use a throwaway statement
+                statementMisses.increment();
+                return new Lease(newStatement(conn, sql, returnKeys), null);
+            }
+            statementMisses.increment();
+            cached = new CachedStatement(newStatement(conn, sql, returnKeys));
+            cached.inUse = true;
+            perConnection.put(key, cached);
+            return new Lease(cached.statement, cached);
+        }
+    }
+
+    /**
+     * Drops and closes every statement cached for a connection that is about to close
+     * @param conn Connection being closed
+     */
+    public void evictConnection(Connection conn) {
+        Map<Key, CachedStatement> perConnection;
+        synchronized (this) {
+            perConnection = statements.get(conn);
+            if (perConnection != null) {
+                Map<Connection, Map<Key, CachedStatement>> copy = new IdentityHashMap<>(statements);
+                copy.remove(conn);
+                statements = copy;
+            }
+        }
+        if (perConnection == null) {
+            return;
+        }
+        synchronized (perConnection) {
+            for (CachedStatement cached : perConnection.values()) {
+                retire(cached);
+            }
+            perConnection.clear();
+        }
+    }
+
+    public long getSqlHits() {
+        return sqlHits.sum();
+    }
+
+    public long getSqlMisses() {
+        return sqlMisses.sum();
+    }
+
+    public long getStatementHits() {
+        return statementHits.sum();
+    }
+
+    public long getStatementMisses() {
+        return statementMisses.sum();
+    }
+
+    /**
+     * @return SQL texts and prepared statements dropped because a cache level was full
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StatementCache[sql hits=%d misses=%d, statement hits=%d misses=%d, evictions=%d]",
+                getSqlHits(), getSqlMisses(), getStatementHits(), getStatementMisses(), getEvictions());
+    }
+
+    private synchronized Map<Key, CachedStatement> addConnection(Connection conn) {
+        Map<Key, CachedStatement> perConnection = statements.get(conn);
+        if (perConnection == null) {
+            perConnection = newStatementLru();
+            Map<Connection, Map<Key, CachedStatement>> copy = new IdentityHashMap<>(statements);
+            copy.put(conn, perConnection);
+            statements = copy;
+        }
+        return perConnection;
+    }
+
+    private Map<Key, CachedStatement> newStatementLru() {
+        return new LinkedHashMap<Key, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedStatement> eldest) {
+                if (size() > maxStatementsPerConnection) {
+                    evictions.increment();
+                    retire(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private static void retire(CachedStatement cached) {
+        synchronized (cached) {
+            cached.evicted = true;
+            if (!cached.inUse) {
+                try {
+                    cached.statement.close();
+                } catch (SQLException e) {
+                    LOGGER.warning("Error closing cached statement: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static PreparedStatement newStatement(Connection conn, String sql, boolean returnKeys) throws SQLException {
+        return returnKeys
+                ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : conn.prepareStatement(sql);
+    }
+}
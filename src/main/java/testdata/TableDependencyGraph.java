@@ -0,0 +1,147 @@
+package testdata;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * TableDependencyGraph orders a set of tables by their foreign keys, read from
+ * DatabaseMetaData.getImportedKeys. Tables are grouped into levels: every
+ * table's parents sit in an earlier level, so the tables of one level can be
+ * written concurrently. Only references between tables in the set count, and
+ * self-references are ignored.
+ */
+public class TableDependencyGraph {
+    private final Map<String, Set<String>> parents;
+    private final List<List<String>> levels;
+
+    private TableDependencyGraph(Map<String, Set<String>> parents) {
+        this.parents = parents;
+        this.levels = computeLevels(parents);
+    }
+
+    /**
+     * Reads the foreign keys of the given tables and builds the graph
+     * @param conn Open connection
+     * @param tables Table names as the caller spells them
+     * @return Dependency graph over those tables
+     * @throws SQLException if metadata cannot be read, or the foreign keys form a cycle
+     */
+    public static TableDependencyGraph build(Connection conn, Collection<String> tables) throws SQLException {
+        return build(conn, tables, Collections.emptyMap());
+    }
+
+    /**
+     * Builds the graph from foreign keys plus dependencies the caller knows about
+     * @param conn Open connection
+     * @param tables Table names as the caller spells them
+     * @param extraParents Additional parents per table, e.g. from row-level references
+     * @return Dependency graph over those tables
+     * @throws SQLException if metadata cannot be read, or the dependencies form a cycle
+     */
+    public static TableDependencyGraph build(Connection conn, Collection<String> tables,
+                                             Map<String, Set<String>> extraParents) throws SQLException {
+        // Metadata reports names in the database's case; map them back to the caller's spelling
+        Map<String, String> byUpperName = new LinkedHashMap<>();
+        for (String table : tables) {
+            byUpperName.put(table.toUpperCase(Locale.ROOT), table);
+        }
+
+        Map<String, Set<String>> parents = new LinkedHashMap<>();
+        for (String table : tables) {
+            Set<String> tableParents = new LinkedHashSet<>();
+            for (TableMetadata.ForeignKey key : TableMetadata.importedKeys(conn, table)) {
+                String parent = byUpperName.get(key.parentTable.toUpperCase(Locale.ROOT));
+                if (parent != null && !parent.equals(table)) {
+                    tableParents.add(parent);
+                }
+            }
+            for (String parent : extraParents.getOrDefault(table, Collections.emptySet())) {
+                if (!parent.equals(table) && tables.contains(parent)) {
+                    tableParents.add(parent);
+                }
+            }
+            parents.put(table, tableParents);
+        }
+
+        TableDependencyGraph graph = new TableDependencyGraph(parents);
+        int ordered = 0;
+        for (List<String> level : graph.levels) {
+            ordered += level.size();
+        }
+        if (ordered < parents.size()) {
+            Set<String> cyclic = new LinkedHashSet<>(parents.keySet());
+            for (List<String> level : graph.levels) {
+                cyclic.removeAll(level);
+            }
+            throw new SQLException("Foreign keys form a cycle between tables " + cyclic);
+        }
+        return graph;
+    }
+
+    /**
+     * @return Levels in insert order: parents before children
+     */
+    public List<List<String>> getInsertLevels() {
+        return levels;
+    }
+
+    /**
+     * @return Levels in delete order: children before parents
+     */
+    public List<List<String>> getDeleteLevels() {
+        List<List<String>> reversed = new ArrayList<>(levels);
+        Collections.reverse(reversed);
+        return Collections.unmodifiableList(reversed);
+    }
+
+    /**
+     * @param table Table name as passed to build
+     * @return Tables in the set that the table references
+     */
+    public Set<String> getParents(String table) {
+        Set<String> tableParents = parents.get(table);
+        return tableParents == null ? Collections.emptySet() : Collections.unmodifiableSet(tableParents);
+    }
+
+    private static List<List<String>> computeLevels(Map<String, Set<String>> parents) {
+        // Kahn's algorithm, one level per round
+        Map<String, Integer> remaining = new LinkedHashMap<>();
+        Map<String, List<String>> children = new LinkedHashMap<>();
+        for (Map.Entry<String, Set<String>> entry : parents.entrySet()) {
+            remaining.put(entry.getKey(), entry.getValue().size());
+            for (String parent : entry.getValue()) {
+                children.computeIfAbsent(parent, k -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+
+        List<List<String>> levels = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : remaining.entrySet()) {
+            if (entry.getValue() == 0) {
+                current.add(entry.getKey());
+            }
+        }
+        while (!current.isEmpty()) {
+            levels.add(Collections.unmodifiableList(current));
+            List<String> next = new ArrayList<>();
+            for (String table : current) {
+                for (String child : children.getOrDefault(table, Collections.emptyList())) {
+                    if (remaining.merge(child, -1, Integer::sum) == 0) {
+                        next.add(child);
+                    }
+                }
+            }
+            current = next;
+        }
+        return Collections.unmodifiableList(levels);
+    }
+}
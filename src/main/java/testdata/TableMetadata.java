@@ -0,0 +1,217 @@
+package testdata;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * TableMetadata reads column definitions through DatabaseMetaData, trying the
+ * table name as given and then in upper and lower case, since databases differ
+ * in how they store unquoted identifiers.
+ */
+final class TableMetadata {
+
+    /**
+     * One column as reported by DatabaseMetaData.getColumns
+     */
+    static final class Column {
+        final String name;
+        final int sqlType;
+        final String typeName;
+        final int size;
+        final boolean nullable;
+        final boolean autoIncrement;
+
+        Column(String name, int sqlType, String typeName, int size, boolean nullable, boolean autoIncrement) {
+            this.name = name;
+            this.sqlType = sqlType;
+            this.typeName = typeName;
+            this.size = size;
+            this.nullable = nullable;
+            this.autoIncrement = autoIncrement;
+        }
+    }
+
+    /**
+     * One foreign-key column as reported by DatabaseMetaData.getImportedKeys
+     */
+    static final class ForeignKey {
+        final String column;
+        final String parentTable;
+        final String parentColumn;
+
+        ForeignKey(String column, String parentTable, String parentColumn) {
+            this.column = column;
+            this.parentTable = parentTable;
+            this.parentColumn = parentColumn;
+        }
+    }
+
+    private TableMetadata() {
+    }
+
+    /**
+     * @param conn Open connection
+     * @param tableName Name of the table
+     * @return Columns in ordinal order
+     * @throws SQLException if the table cannot be found or metadata cannot be read
+     */
+    static List<Column> columns(Connection conn, String tableName) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        for (String candidate : nameCandidates(tableName)) {
+            List<Column> columns = new ArrayList<>();
+            try (ResultSet rs = metaData.getColumns(conn.getCatalog(), null, candidate, null)) {
+                while (rs.next()) {
+                    columns.add(new Column(
+                            rs.getString("COLUMN_NAME"),
+                            rs.getInt("DATA_TYPE"),
+                            rs.getString("TYPE_NAME"),
+                            rs.getInt("COLUMN_SIZE"),
+                            rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls,
+                            "YES".equalsIgnoreCase(rs.getString("IS_AUTOINCREMENT"))));
+                }
+            }
+            if (!columns.isEmpty()) {
+                return columns;
+            }
+        }
+        throw new SQLException("Table not found: " + tableName);
+    }
+
+    /**
+     * @param conn Open connection
+     * @param tableName Name of the table
+     * @return java.sql.Types code per column, keyed by upper-case column name
+     * @throws SQLException if the table cannot be found or metadata cannot be read
+     */
+    static Map<String, Integer> columnTypes(Connection conn, String tableName) throws SQLException {
+        Map<String, Integer> types = new LinkedHashMap<>();
+        for (Column column : columns(conn, tableName)) {
+            types.put(column.name.toUpperCase(Locale.ROOT), column.sqlType);
+        }
+        return Collections.unmodifiableMap(types);
+    }
+
+    /**
+     * @param conn Open connection
+     * @param tableName Name of the table
+     * @return Foreign keys the table declares, one entry per column
+     * @throws SQLException if metadata cannot be read
+     */
+    static List<ForeignKey> importedKeys(Connection conn, String tableName) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        for (String candidate : nameCandidates(tableName)) {
+            List<ForeignKey> keys = new ArrayList<>();
+            try (ResultSet rs = metaData.getImportedKeys(conn.getCatalog(), null, candidate)) {
+                while (rs.next()) {
+                    keys.add(new ForeignKey(
+                            rs.getString("FKCOLUMN_NAME"),
+                            rs.getString("PKTABLE_NAME"),
+                            rs.getString("PKCOLUMN_NAME")));
+                }
+            }
+            if (!keys.isEmpty()) {
+                return keys;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param conn Open connection
+     * @param tableName Name of the table
+     * @return Whether any foreign key in the database references the table
+     * @throws SQLException if metadata cannot be read
+     */
+    static boolean isReferenced(Connection conn, String tableName) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        for (String candidate : nameCandidates(tableName)) {
+            try (ResultSet rs = metaData.getExportedKeys(conn.getCatalog(), null, candidate)) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param conn Open connection
+     * @param tableName Name of the table
+     * @return Primary-key columns in key order, or an empty list if the table has none
+     * @throws SQLException if metadata cannot be read
+     */
+    static List<String> primaryKey(Connection conn, String tableName) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        for (String candidate : nameCandidates(tableName)) {
+            Map<Integer, String> columns = new TreeMap<>();
+            try (ResultSet rs = metaData.getPrimaryKeys(conn.getCatalog(), null, candidate)) {
+                while (rs.next()) {
+                    columns.put(rs.getInt("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+                }
+            }
+            if (!columns.isEmpty()) {
+                return new ArrayList<>(columns.values());
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param conn Open connection
+     * @param tableName Name of the table
+     * @return Columns that carry a single-column unique index, including a single-column primary key
+     * @throws SQLException if metadata cannot be read
+     */
+    static List<String> uniqueColumns(Connection conn, String tableName) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        for (String candidate : nameCandidates(tableName)) {
+            Map<String, List<String>> indexes = new LinkedHashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(conn.getCatalog(), null, candidate, true, true)) {
+                while (rs.next()) {
+                    String column = rs.getString("COLUMN_NAME");
+                    if (rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic || column == null) {
+                        continue;
+                    }
+                    indexes.computeIfAbsent(rs.getString("INDEX_NAME"), k -> new ArrayList<>()).add(column);
+                }
+            }
+            if (!indexes.isEmpty()) {
+                List<String> columns = new ArrayList<>();
+                for (List<String> indexColumns : indexes.values()) {
+                    if (indexColumns.size() == 1 && !columns.contains(indexColumns.get(0))) {
+                        columns.add(indexColumns.get(0));
+                    }
+                }
+                return columns;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param tableName Name as given by the caller
+     * @return Spellings to try against the metadata, most likely first
+     */
+    static List<String> nameCandidates(String tableName) {
+        List<String> candidates = new ArrayList<>(3);
+        candidates.add(tableName);
+        String upper = tableName.toUpperCase(Locale.ROOT);
+        String lower = tableName.toLowerCase(Locale.ROOT);
+        if (!candidates.contains(upper)) {
+            candidates.add(upper);
+        }
+        if (!candidates.contains(lower)) {
+            candidates.add(lower);
+        }
+        return candidates;
+    }
+}
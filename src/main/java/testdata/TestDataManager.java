@@ -0,0 +1,1702 @@
+package testdata;
+
+import java.sql.*;
+import java.util.*;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.logging.Logger;
+
+/**
+ * TestDataManager provides comprehensive functionality for managing 
+ * test data in SQL databases for QA automation purposes.
+ * <p>
+ * One instance can be shared by all test threads in a JVM. Operations either
+ * lease a connection from the pool or, without a pool, use a connection owned
+ * by the calling thread, so no connection is used by two threads at once.
+ */
+public class TestDataManager {
+    private static final Logger LOGGER = Logger.getLogger(TestDataManager.class.getName());
+
+    /**
+     * Converts the current row of a result set into a value
+     */
+    @FunctionalInterface
+    interface RowReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Builds a RowReader once per result set, so column metadata is looked up only once
+     */
+    @FunctionalInterface
+    interface RowReaderFactory<T> {
+        RowReader<T> create(ResultSetMetaData metaData) throws SQLException;
+    }
+
+    /**
+     * Handles a whole result set once the query has run
+     */
+    @FunctionalInterface
+    interface ResultSetHandler<R> {
+        R handle(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * How the batch APIs send rows to the database
+     */
+    public enum InsertMode {
+        /** One single-row INSERT per row, grouped with addBatch/executeBatch */
+        JDBC_BATCH,
+        /** One INSERT with many VALUES tuples, sized to the dialect's bind-parameter limit */
+        MULTI_ROW_VALUES
+    }
+    
+    // Database connection properties
+    private final String url;
+    private final String username;
+    private final String password;
+
+    // Without a pool, each thread gets its own connection on first use; a
+    // connection whose owner thread has ended is handed to the next new thread
+    private final ThreadLocal<ThreadConnection> threadConnection = new ThreadLocal<>();
+    private final Map<Connection, Thread> threadConnections = new ConcurrentHashMap<>();
+    // Bumped by connect and disconnect so threads notice their connection was closed
+    private volatile int generation;
+    private volatile boolean connected;
+
+    // Connection pool settings; null gives each thread its own connection
+    private final ConnectionPool.Config poolConfig;
+    private volatile ConnectionPool pool;
+
+    // Rows sent per executeBatch call (and committed together) by the batch APIs
+    private volatile int batchSize = 1000;
+    private volatile InsertMode insertMode = InsertMode.JDBC_BATCH;
+    private volatile SqlDialect dialect;
+    // Whether the native bulk-load path is usable, probed once on first bulkLoad
+    private volatile Boolean bulkLoadSupported;
+
+    // Connection of the isolated scope open on each thread, if any
+    private final ThreadLocal<IsolatedScope> activeScope = new ThreadLocal<>();
+
+    // SQL text and per-connection prepared statements for the CRUD methods
+    private volatile StatementCache statementCache = new StatementCache(512, 64);
+
+    // Calls, rows, errors and latency per operation and table
+    private final OperationMetrics metrics = new OperationMetrics();
+    private volatile SlowStatementLog slowStatementLog;
+
+    // Optional read-through cache for retrieveTestData, invalidated by every write
+    private volatile ResultCache resultCache;
+
+    /**
+     * Constructor to initialize database connection
+     * @param url Database connection URL
+     * @param username Database username
+     * @param password Database password
+     */
+    public TestDataManager(String url, String username, String password) {
+        this(url, username, password, null);
+    }
+
+    /**
+     * Constructor to initialize a pooled database connection
+     * @param url Database connection URL
+     * @param username Database username
+     * @param password Database password
+     * @param poolConfig Pool sizing and timeouts used by connect()
+     */
+    public TestDataManager(String url, String username, String password, ConnectionPool.Config poolConfig) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.poolConfig = poolConfig;
+    }
+
+    /**
+     * Establishes a database connection, or opens the connection pool when one
+     * is configured. Without a pool, the calling thread's connection is opened
+     * here and other threads open theirs on first use. Calling connect on a
+     * connected manager does nothing, so tests sharing one manager may all call it.
+     * @throws SQLException if connection fails
+     */
+    public synchronized void connect() throws SQLException {
+        if (connected) {
+            return;
+        }
+        OperationTrace trace = new OperationTrace("CONNECT", "");
+        try {
+            if (poolConfig != null) {
+                ConnectionPool opened = new ConnectionPool(url, username, password, poolConfig);
+                opened.setCloseListener(statementCache::evictConnection);
+                pool = opened;
+                connected = true;
+                LOGGER.info("Database connection pool established successfully");
+            } else {
+                generation++;
+                connected = true;
+                try {
+                    openThreadConnection();
+                } catch (SQLException e) {
+                    connected = false;
+                    throw e;
+                }
+                LOGGER.info("Database connection established successfully");
+            }
+            trace.connectionAcquired();
+            trace.succeeded(0);
+        } catch (SQLException e) {
+            LOGGER.severe("Failed to connect to database: " + e.getMessage());
+            throw e;
+        } finally {
+            complete(trace);
+        }
+    }
+
+    /**
+     * @return true when operations borrow connections from a pool
+     */
+    public boolean isPooled() {
+        return poolConfig != null;
+    }
+
+    /**
+     * @return Connections operations can use at once: the pool's maximum size, or 1 without a pool
+     */
+    public int getMaxConnections() {
+        return poolConfig != null ? poolConfig.getMaxSize() : 1;
+    }
+
+    /**
+     * Closes the connection pool, or every thread's connection. Call it once
+     * the operations running on other threads have finished.
+     */
+    public synchronized void disconnect() {
+        connected = false;
+        generation++;
+        ConnectionPool current = pool;
+        if (current != null) {
+            // The closed pool stays referenced so in-flight connections are released to it and closed
+            current.close();
+            LOGGER.info("Database connection pool closed");
+        }
+        if (!threadConnections.isEmpty()) {
+            for (Connection conn : threadConnections.keySet()) {
+                threadConnections.remove(conn);
+                closeThreadConnection(conn);
+            }
+            LOGGER.info("Database connections closed");
+        }
+        metrics.unregisterMBean();
+    }
+
+    /**
+     * Sets how many rows the batch APIs send per executeBatch call and commit
+     * @param batchSize Rows per batch, at least 1
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Chooses how batch inserts are sent. MULTI_ROW_VALUES falls back to
+     * JDBC_BATCH on databases without multi-row VALUES support.
+     * @param insertMode Insert mode for insertTestDataBatch and the loaders built on it
+     */
+    public void setInsertMode(InsertMode insertMode) {
+        this.insertMode = Objects.requireNonNull(insertMode);
+    }
+
+    public InsertMode getInsertMode() {
+        return insertMode;
+    }
+
+    /**
+     * Replaces the statement cache, e.g. to change its limits or to disable
+     * statement caching with a per-connection limit of 0. Call before connect().
+     * @param statementCache Cache used by the CRUD methods
+     */
+    public void setStatementCache(StatementCache statementCache) {
+        this.statementCache = Objects.requireNonNull(statementCache);
+    }
+
+    /**
+     * @return Cache holding generated SQL and prepared statements, with its hit and eviction counters
+     */
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    /**
+     * @return Per-operation counters and latency histograms; register them with JMX through registerMBean
+     */
+    public OperationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @param slowStatementLog Log that aggregates statements over its threshold, or null to disable
+     */
+    public void setSlowStatementLog(SlowStatementLog slowStatementLog) {
+        this.slowStatementLog = slowStatementLog;
+    }
+
+    public SlowStatementLog getSlowStatementLog() {
+        return slowStatementLog;
+    }
+
+    /**
+     * @param resultCache Cache for retrieveTestData and retrieveTestDataCompact results, or null to disable
+     */
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Invalidates cached results for a table after a write through this manager
+     * @param tableName Table that was written
+     */
+    void tableWritten(String tableName) {
+        ResultCache cache = resultCache;
+        if (cache != null) {
+            cache.invalidate(tableName);
+        }
+    }
+
+    /**
+     * Returns the dialect of the connected database, detecting it on first use
+     * @param conn Open connection used for detection
+     * @return Detected dialect
+     * @throws SQLException if metadata cannot be read
+     */
+    SqlDialect dialect(Connection conn) throws SQLException {
+        SqlDialect detected = dialect;
+        if (detected == null) {
+            detected = SqlDialect.detect(conn);
+            dialect = detected;
+        }
+        return detected;
+    }
+
+    private boolean bulkLoadSupported(SqlDialect sqlDialect, Connection conn) {
+        Boolean supported = bulkLoadSupported;
+        if (supported == null) {
+            supported = BulkLoader.supports(sqlDialect, conn);
+            bulkLoadSupported = supported;
+        }
+        return supported;
+    }
+
+    /**
+     * Borrows a pooled connection, or returns the calling thread's own connection.
+     * Takes no lock unless a connection has to be opened.
+     * @return Connection to run one operation on
+     * @throws SQLException if no connection is available
+     */
+    Connection acquireConnection() throws SQLException {
+        IsolatedScope scope = currentScope();
+        if (scope != null) {
+            return scope.connection();
+        }
+        ConnectionPool current = pool;
+        if (current != null) {
+            return current.borrow();
+        }
+        ThreadConnection held = threadConnection.get();
+        if (held != null && held.generation == generation) {
+            return held.connection;
+        }
+        return openThreadConnection();
+    }
+
+    /**
+     * Hands a connection obtained from acquireConnection back to the pool
+     * @param conn Connection to release
+     */
+    void releaseConnection(Connection conn) {
+        if (isScoped(conn)) {
+            return;
+        }
+        ConnectionPool current = pool;
+        if (current != null) {
+            current.release(conn);
+        }
+    }
+
+    /**
+     * A thread's own connection, tagged with the connect generation it belongs to
+     */
+    private static final class ThreadConnection {
+        final Connection connection;
+        final int generation;
+
+        ThreadConnection(Connection connection, int generation) {
+            this.connection = connection;
+            this.generation = generation;
+        }
+    }
+
+    private Connection openThreadConnection() throws SQLException {
+        int current = generation;
+        if (!connected) {
+            throw new SQLException("No active database connection");
+        }
+        Thread self = Thread.currentThread();
+        Connection conn = adoptOrphanedConnection(self);
+        if (conn == null) {
+            conn = DriverManager.getConnection(url, username, password);
+            threadConnections.put(conn, self);
+        }
+        if (current != generation || !connected) {
+            // disconnect ran while this connection was being opened
+            threadConnections.remove(conn);
+            closeThreadConnection(conn);
+            throw new SQLException("No active database connection");
+        }
+        threadConnection.set(new ThreadConnection(conn, current));
+        return conn;
+    }
+
+    /**
+     * Takes over the connection of a thread that has ended, so short-lived
+     * worker threads do not each leave a connection behind
+     */
+    private Connection adoptOrphanedConnection(Thread self) {
+        for (Map.Entry<Connection, Thread> entry : threadConnections.entrySet()) {
+            Connection conn = entry.getKey();
+            if (entry.getValue().isAlive() || !threadConnections.replace(conn, entry.getValue(), self)) {
+                continue;
+            }
+            try {
+                // The previous owner may have ended mid-transaction
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+                return conn;
+            } catch (SQLException e) {
+                threadConnections.remove(conn);
+                closeThreadConnection(conn);
+            }
+        }
+        return null;
+    }
+
+    private void closeThreadConnection(Connection conn) {
+        statementCache.evictConnection(conn);
+        try {
+            conn.close();
+            LOGGER.fine("Database connection closed");
+        } catch (SQLException e) {
+            LOGGER.warning("Error closing database connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Opens a scope whose inserts, updates and deletes all run in one
+     * transaction that is rolled back when the scope is closed. Until then,
+     * every call on this manager from the current thread uses the scope's connection.
+     * @return Scope to use in a try-with-resources block
+     * @throws SQLException if no connection is available
+     */
+    public IsolatedScope beginIsolatedScope() throws SQLException {
+        return beginIsolatedScope(false);
+    }
+
+    /**
+     * Opens an isolated scope, optionally wrapping each scope operation in a
+     * savepoint so a failed step is undone without aborting the whole scope
+     * @param savepointPerStep Whether each operation gets its own savepoint
+     * @return Scope to use in a try-with-resources block
+     * @throws SQLException if no connection is available
+     */
+    public IsolatedScope beginIsolatedScope(boolean savepointPerStep) throws SQLException {
+        if (currentScope() != null) {
+            throw new IllegalStateException("An isolated scope is already open on this thread");
+        }
+        Connection conn = acquireConnection();
+        try {
+            IsolatedScope scope = new IsolatedScope(this, conn, savepointPerStep);
+            activeScope.set(scope);
+            return scope;
+        } catch (SQLException e) {
+            releaseConnection(conn);
+            throw e;
+        }
+    }
+
+    void endIsolatedScope(IsolatedScope scope) {
+        if (activeScope.get() == scope) {
+            activeScope.remove();
+        }
+        releaseConnection(scope.connection());
+    }
+
+    /**
+     * @param conn Connection about to be used
+     * @return Whether the connection belongs to the current thread's isolated scope,
+     *         in which case callers must neither commit nor change auto-commit
+     */
+    boolean isScoped(Connection conn) {
+        IsolatedScope scope = currentScope();
+        return scope != null && scope.connection() == conn;
+    }
+
+    /**
+     * @return Whether an isolated scope is open on the calling thread. Work handed
+     *         to other threads would not see the scope's connection and would commit.
+     */
+    boolean inIsolatedScope() {
+        return currentScope() != null;
+    }
+
+    private IsolatedScope currentScope() {
+        IsolatedScope scope = activeScope.get();
+        if (scope != null && scope.isClosed()) {
+            // Closed from another thread; forget it here too
+            activeScope.remove();
+            return null;
+        }
+        return scope;
+    }
+
+    /**
+     * Inserts test data into a specified table
+     * @param tableName Name of the table
+     * @param data Map of column names and values
+     * @return Generated key (if applicable)
+     * @throws SQLException if insertion fails
+     */
+    public int insertTestData(String tableName, Map<String, Object> data) throws SQLException {
+        List<String> columns = new ArrayList<>(data.size());
+        List<Object> params = new ArrayList<>(data.size());
+
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            columns.add(entry.getKey());
+            params.add(entry.getValue());
+        }
+
+        StatementCache.Key key = new StatementCache.Key("INSERT", tableName, columns, Collections.emptyList());
+        String sql = statementCache.sql(key, () -> buildInsertSql(tableName, columns, 1));
+
+        OperationTrace trace = new OperationTrace("INSERT", tableName, params.size());
+        trace.sql = sql;
+        Connection conn = acquireConnection();
+        trace.connectionAcquired();
+        try (StatementCache.Lease lease = statementCache.prepare(conn, key, sql, true)) {
+            PreparedStatement pstmt = lease.statement();
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+
+            int inserted = pstmt.executeUpdate();
+
+            int generatedKey = -1;
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    generatedKey = generatedKeys.getInt(1);
+                }
+            }
+            trace.succeeded(inserted);
+            return generatedKey;
+        } catch (SQLException e) {
+            LOGGER.severe("Error inserting test data: " + e.getMessage());
+            throw e;
+        } finally {
+            releaseConnection(conn);
+            tableWritten(tableName);
+            complete(trace);
+        }
+    }
+
+    /**
+     * Inserts many rows into a specified table using JDBC batches. Rows with the
+     * same column set share one statement; each chunk of batchSize rows is
+     * committed on its own, so a failure leaves earlier chunks in place.
+     * @param tableName Name of the table
+     * @param rows Maps of column names and values, one per row
+     * @return Generated keys in input order (-1 where the driver reported none)
+     * @throws SQLException if insertion fails
+     */
+    public List<Integer> insertTestDataBatch(String tableName, List<Map<String, Object>> rows) throws SQLException {
+        List<Integer> keys = new ArrayList<>(Collections.nCopies(rows.size(), -1));
+        if (rows.isEmpty()) {
+            return keys;
+        }
+
+        // Group row indexes by column set, keeping first-seen group order
+        Map<List<String>, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            List<String> columns = new ArrayList<>(new TreeSet<>(rows.get(i).keySet()));
+            groups.computeIfAbsent(columns, k -> new ArrayList<>()).add(i);
+        }
+
+        OperationTrace trace = new OperationTrace("INSERT_BATCH", tableName);
+        Connection conn = acquireConnection();
+        trace.connectionAcquired();
+        boolean manageTransaction = !isScoped(conn);
+        boolean autoCommit = true;
+        try {
+            if (manageTransaction) {
+                autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+            }
+            for (Map.Entry<List<String>, List<Integer>> group : groups.entrySet()) {
+                List<String> columns = group.getKey();
+                List<Integer> indexes = group.getValue();
+                Iterator<Object[]> values = indexes.stream()
+                        .map(i -> toValues(rows.get(i), columns))
+                        .iterator();
+
+                List<Integer> groupKeys = new ArrayList<>(indexes.size());
+                insertRows(conn, tableName, columns, values, groupKeys, manageTransaction);
+                for (int i = 0; i < indexes.size() && i < groupKeys.size(); i++) {
+                    keys.set(indexes.get(i), groupKeys.get(i));
+                }
+            }
+            trace.succeeded(rows.size());
+        } catch (SQLException e) {
+            if (manageTransaction) {
+                rollbackQuietly(conn);
+            }
+            LOGGER.severe("Error batch inserting test data: " + e.getMessage());
+            throw e;
+        } finally {
+            if (manageTransaction) {
+                restoreAutoCommit(conn, autoCommit);
+            }
+            releaseConnection(conn);
+            tableWritten(tableName);
+            complete(trace);
+        }
+
+        return keys;
+    }
+
+    /**
+     * Loads rows through the database's native bulk-load path (COPY on PostgreSQL,
+     * LOAD DATA LOCAL INFILE on MySQL, CSVREAD on H2), falling back to batched
+     * inserts on other databases. Rows with different column sets are loaded as
+     * separate groups. Generated keys are not returned.
+     * @param tableName Name of the table
+     * @param rows Maps of column names and values, one per row
+     * @return Number of rows loaded
+     * @throws SQLException if loading fails
+     */
+    public long bulkLoad(String tableName, List<Map<String, Object>> rows) throws SQLException {
+        Map<List<String>, List<Map<String, Object>>> groups = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            List<String> columns = new ArrayList<>(new TreeSet<>(row.keySet()));
+            groups.computeIfAbsent(columns, k -> new ArrayList<>()).add(row);
+        }
+
+        long loaded = 0;
+        for (Map.Entry<List<String>, List<Map<String, Object>>> group : groups.entrySet()) {
+            List<String> columns = group.getKey();
+            loaded += bulkLoad(tableName, columns,
+                    group.getValue().stream().map(row -> toValues(row, columns)).iterator());
+        }
+        return loaded;
+    }
+
+    /**
+     * Streams rows with a fixed column list through the native bulk-load path,
+     * or through batched inserts when the database has none
+     * @param tableName Name of the table
+     * @param columns Column names matching the order of each value array
+     * @param rows Row values, consumed once
+     * @return Number of rows loaded
+     * @throws SQLException if loading fails
+     */
+    public long bulkLoad(String tableName, List<String> columns, Iterator<Object[]> rows) throws SQLException {
+        OperationTrace trace = new OperationTrace("BULK_LOAD", tableName);
+        Connection conn = acquireConnection();
+        trace.connectionAcquired();
+        try {
+            SqlDialect sqlDialect = dialect(conn);
+            long loaded;
+            if (bulkLoadSupported(sqlDialect, conn)) {
+                loaded = BulkLoader.load(sqlDialect, conn, tableName, columns, rows);
+            } else {
+                LOGGER.fine("No bulk-load path for " + sqlDialect + ", using batched inserts");
+                loaded = insertRowsInChunks(conn, tableName, columns, rows);
+            }
+            trace.succeeded(loaded);
+            return loaded;
+        } catch (SQLException e) {
+            LOGGER.severe("Error bulk loading test data: " + e.getMessage());
+            throw e;
+        } finally {
+            releaseConnection(conn);
+            tableWritten(tableName);
+            complete(trace);
+        }
+    }
+
+    /**
+     * Batch-inserts rows in their given order, starting a new batch whenever the
+     * column set changes, and commits each chunk
+     * @param conn Connection to use
+     * @param tableName Name of the table
+     * @param rows Maps of column names and values, one per row
+     * @return Number of rows written
+     * @throws SQLException if insertion fails
+     */
+    long insertInOrder(Connection conn, String tableName, List<Map<String, Object>> rows) throws SQLException {
+        long written = 0;
+        int runStart = 0;
+        while (runStart < rows.size()) {
+            Set<String> columnSet = rows.get(runStart).keySet();
+            int runEnd = runStart + 1;
+            while (runEnd < rows.size() && rows.get(runEnd).keySet().equals(columnSet)) {
+                runEnd++;
+            }
+            List<String> columns = new ArrayList<>(columnSet);
+            written += insertRowsInChunks(conn, tableName, columns,
+                    rows.subList(runStart, runEnd).stream().map(row -> toValues(row, columns)).iterator());
+            runStart = runEnd;
+        }
+        return written;
+    }
+
+    /**
+     * Batch-inserts rows committing each chunk, restoring the connection's
+     * auto-commit setting afterwards
+     */
+    long insertRowsInChunks(Connection conn, String tableName, List<String> columns,
+                            Iterator<Object[]> rows) throws SQLException {
+        if (isScoped(conn)) {
+            try {
+                return insertRows(conn, tableName, columns, rows, null, false);
+            } finally {
+                tableWritten(tableName);
+            }
+        }
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            conn.setAutoCommit(false);
+            return insertRows(conn, tableName, columns, rows, null, true);
+        } catch (SQLException | RuntimeException e) {
+            rollbackQuietly(conn);
+            throw e;
+        } finally {
+            restoreAutoCommit(conn, autoCommit);
+            tableWritten(tableName);
+        }
+    }
+
+    /**
+     * Writes rows with a fixed column list through JDBC batches on the given connection
+     * @param conn Connection to use; the caller owns its transaction settings
+     * @param tableName Name of the table
+     * @param columns Column names matching the order of each value array
+     * @param rows Row values; consumed lazily so callers can stream them
+     * @param keySink Receives generated keys in row order, or null to skip key retrieval
+     * @param commitPerChunk Whether to commit after each executed batch
+     * @return Number of rows written
+     * @throws SQLException if insertion fails
+     */
+    long insertRows(Connection conn, String tableName, List<String> columns, Iterator<Object[]> rows,
+                    List<Integer> keySink, boolean commitPerChunk) throws SQLException {
+        if (insertMode == InsertMode.MULTI_ROW_VALUES && dialect(conn).supportsMultiRowValues()) {
+            return insertRowsMultiValues(conn, tableName, columns, rows, keySink, commitPerChunk);
+        }
+
+        String sql = buildInsertSql(tableName, columns, 1);
+        long written = 0;
+
+        try (PreparedStatement pstmt = keySink != null
+                ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : conn.prepareStatement(sql)) {
+            int pending = 0;
+            while (rows.hasNext()) {
+                Object[] values = rows.next();
+                for (int i = 0; i < values.length; i++) {
+                    pstmt.setObject(i + 1, values[i]);
+                }
+                pstmt.addBatch();
+                if (++pending == batchSize) {
+                    written += flushBatch(conn, pstmt, pending, keySink, commitPerChunk);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                written += flushBatch(conn, pstmt, pending, keySink, commitPerChunk);
+            }
+        }
+
+        return written;
+    }
+
+    private long insertRowsMultiValues(Connection conn, String tableName, List<String> columns,
+                                       Iterator<Object[]> rows, List<Integer> keySink,
+                                       boolean commitPerChunk) throws SQLException {
+        int rowsPerStatement = dialect(conn).rowsPerInsert(columns.size(), batchSize);
+        List<Object[]> chunk = new ArrayList<>(rowsPerStatement);
+        PreparedStatement fullSize = null;
+        long written = 0;
+
+        try {
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == rowsPerStatement || !rows.hasNext()) {
+                    if (chunk.size() == rowsPerStatement) {
+                        // Full-size chunks reuse one prepared statement; only the tail gets its own
+                        if (fullSize == null) {
+                            fullSize = prepareInsert(conn, tableName, columns, rowsPerStatement, keySink != null);
+                        }
+                        written += executeMultiValues(conn, fullSize, chunk, keySink, commitPerChunk);
+                    } else {
+                        try (PreparedStatement tail = prepareInsert(conn, tableName, columns, chunk.size(),
+                                                                    keySink != null)) {
+                            written += executeMultiValues(conn, tail, chunk, keySink, commitPerChunk);
+                        }
+                    }
+                    chunk.clear();
+                }
+            }
+        } finally {
+            if (fullSize != null) {
+                fullSize.close();
+            }
+        }
+
+        return written;
+    }
+
+    private static PreparedStatement prepareInsert(Connection conn, String tableName, List<String> columns,
+                                                   int rowCount, boolean returnKeys) throws SQLException {
+        String sql = buildInsertSql(tableName, columns, rowCount);
+        return returnKeys
+                ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : conn.prepareStatement(sql);
+    }
+
+    private int executeMultiValues(Connection conn, PreparedStatement pstmt, List<Object[]> chunk,
+                                   List<Integer> keySink, boolean commit) throws SQLException {
+        int index = 1;
+        for (Object[] values : chunk) {
+            for (Object value : values) {
+                pstmt.setObject(index++, value);
+            }
+        }
+        pstmt.executeUpdate();
+        collectKeys(pstmt, chunk.size(), keySink);
+        if (commit) {
+            conn.commit();
+        }
+        return chunk.size();
+    }
+
+    private int flushBatch(Connection conn, PreparedStatement pstmt, int pending,
+                           List<Integer> keySink, boolean commit) throws SQLException {
+        pstmt.executeBatch();
+        collectKeys(pstmt, pending, keySink);
+        if (commit) {
+            conn.commit();
+        }
+        return pending;
+    }
+
+    private static void collectKeys(PreparedStatement pstmt, int expected, List<Integer> keySink) throws SQLException {
+        if (keySink == null) {
+            return;
+        }
+        int collected = 0;
+        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+            while (collected < expected && generatedKeys.next()) {
+                keySink.add(generatedKeys.getInt(1));
+                collected++;
+            }
+        }
+        // Drivers that return no keys for batches still keep positions aligned
+        for (; collected < expected; collected++) {
+            keySink.add(-1);
+        }
+    }
+
+    private static String buildInsertSql(String tableName, List<String> columns, int rowCount) {
+        StringBuilder tuple = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            tuple.append(i == 0 ? "?" : ",?");
+        }
+        tuple.append(')');
+
+        StringBuilder sql = new StringBuilder(32 + tableName.length() + rowCount * tuple.length());
+        sql.append("INSERT INTO ").append(tableName).append(" (")
+           .append(String.join(",", columns)).append(") VALUES ");
+        for (int r = 0; r < rowCount; r++) {
+            if (r > 0) {
+                sql.append(',');
+            }
+            sql.append(tuple);
+        }
+        return sql.toString();
+    }
+
+    private static String buildUpdateSql(String tableName, List<String> setColumns, List<String> conditionColumns) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+        for (int i = 0; i < setColumns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(setColumns.get(i)).append(" = ?");
+        }
+        return appendWhere(sql, conditionColumns).toString();
+    }
+
+    /**
+     * Appends an equality WHERE clause joining the given columns with AND
+     * @param sql Statement built so far
+     * @param conditionColumns Columns compared against bind parameters; empty adds nothing
+     * @return The same builder
+     */
+    static StringBuilder appendWhere(StringBuilder sql, List<String> conditionColumns) {
+        for (int i = 0; i < conditionColumns.size(); i++) {
+            sql.append(i == 0 ? " WHERE " : " AND ").append(conditionColumns.get(i)).append(" = ?");
+        }
+        return sql;
+    }
+
+    private static Object[] toValues(Map<String, Object> row, List<String> columns) {
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = row.get(columns.get(i));
+        }
+        return values;
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            LOGGER.warning("Rollback failed: " + e.getMessage());
+        }
+    }
+
+    private static void restoreAutoCommit(Connection conn, boolean autoCommit) {
+        try {
+            conn.setAutoCommit(autoCommit);
+        } catch (SQLException e) {
+            LOGGER.warning("Could not restore auto-commit: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Retrieves test data from a specified table based on conditions
+     * @param tableName Name of the table
+     * @param conditions Map of column names and values to filter
+     * @return List of result maps
+     * @throws SQLException if retrieval fails
+     */
+    public List<Map<String, Object>> retrieveTestData(String tableName, Map<String, Object> conditions) throws SQLException {
+        ResultCache cache = readCache();
+        if (cache != null) {
+            return cachedSelect(cache, tableName, conditions).toMaps();
+        }
+        return select(tableName, conditions, rs -> {
+            // Column names are resolved once per result set rather than once per cell
+            String[] names = ResultTable.columnNames(rs.getMetaData());
+            List<Map<String, Object>> results = new ArrayList<>();
+
+            while (rs.next()) {
+                Map<String, Object> row = new HashMap<>(names.length * 4 / 3 + 1);
+                for (int i = 0; i < names.length; i++) {
+                    row.put(names[i], rs.getObject(i + 1));
+                }
+                results.add(row);
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Retrieves test data into a compact ResultTable: column names are stored
+     * once and each row is a single Object[], which keeps memory and GC
+     * pressure low when comparing large datasets
+     * @param tableName Name of the table
+     * @param conditions Map of column names and values to filter
+     * @return Result rows, readable by index or through Map views
+     * @throws SQLException if retrieval fails
+     */
+    public ResultTable retrieveTestDataCompact(String tableName, Map<String, Object> conditions) throws SQLException {
+        ResultCache cache = readCache();
+        if (cache != null) {
+            return cachedSelect(cache, tableName, conditions);
+        }
+        return select(tableName, conditions, TestDataManager::readTable);
+    }
+
+    /**
+     * @return The result cache, or null when there is none or an isolated scope is open,
+     *         since the scope's uncommitted rows must neither be cached nor hidden by the cache
+     */
+    private ResultCache readCache() {
+        ResultCache cache = resultCache;
+        return cache == null || currentScope() != null ? null : cache;
+    }
+
+    /**
+     * @return A result the caller may modify; the cached table itself is never handed out
+     */
+    private ResultTable cachedSelect(ResultCache cache, String tableName, Map<String, Object> conditions)
+            throws SQLException {
+        if (!ResultCache.isCacheable(conditions)) {
+            return select(tableName, conditions, TestDataManager::readTable);
+        }
+        ResultTable cached = cache.get(tableName, conditions);
+        if (cached != null) {
+            return cached.copy();
+        }
+        long version = cache.version(tableName);
+        ResultTable table = select(tableName, conditions, TestDataManager::readTable);
+        cache.put(tableName, conditions, version, table.copy());
+        return table;
+    }
+
+    static ResultTable readTable(ResultSet rs) throws SQLException {
+        String[] names = ResultTable.columnNames(rs.getMetaData());
+        List<Object[]> rows = new ArrayList<>();
+
+        while (rs.next()) {
+            Object[] values = new Object[names.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = rs.getObject(i + 1);
+            }
+            rows.add(values);
+        }
+        return new ResultTable(names, rows);
+    }
+
+    private <R> R select(String tableName, Map<String, Object> conditions,
+                         ResultSetHandler<R> handler) throws SQLException {
+        List<String> conditionColumns = new ArrayList<>(conditions.size());
+        List<Object> params = new ArrayList<>(conditions.size());
+
+        for (Map.Entry<String, Object> entry : conditions.entrySet()) {
+            conditionColumns.add(entry.getKey());
+            params.add(entry.getValue());
+        }
+
+        StatementCache.Key key = new StatementCache.Key("SELECT", tableName, Collections.emptyList(), conditionColumns);
+        String sql = statementCache.sql(key, () ->
+                appendWhere(new StringBuilder("SELECT * FROM ").append(tableName), conditionColumns).toString());
+
+        OperationTrace trace = new OperationTrace("SELECT", tableName, params.size());
+        trace.sql = sql;
+        Connection conn = acquireConnection();
+        trace.connectionAcquired();
+        try (StatementCache.Lease lease = statementCache.prepare(conn, key, sql, false)) {
+            PreparedStatement pstmt = lease.statement();
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                R result = handler.handle(rs);
+                trace.succeeded(result instanceof Collection ? ((Collection<?>) result).size() : 0);
+                return result;
+            }
+        } catch (SQLException e) {
+            LOGGER.severe("Error retrieving test data: " + e.getMessage());
+            throw e;
+        } finally {
+            releaseConnection(conn);
+            complete(trace);
+        }
+    }
+
+    /**
+     * Runs a query with projection, typed predicates, ordering and a limit.
+     * The SQL is cached per statement shape and the limit is pushed into the
+     * SQL where the dialect allows it, otherwise applied with setMaxRows.
+     * @param spec Query to run
+     * @return Matching rows with only the projected columns
+     * @throws SQLException if the query fails
+     */
+    public ResultTable query(QuerySpec spec) throws SQLException {
+        OperationTrace trace = new OperationTrace("QUERY", spec.getTable());
+        Connection conn = acquireConnection();
+        trace.connectionAcquired();
+        try {
+            SqlDialect sqlDialect = dialect(conn);
+            StatementCache.Key key = spec.shape(sqlDialect);
+            String sql = statementCache.sql(key, () -> spec.toSql(sqlDialect));
+            List<Object> params = spec.parameters(sqlDialect);
+            trace.sql = sql;
+
+            try (StatementCache.Lease lease = statementCache.prepare(conn, key, sql, false)) {
+                PreparedStatement pstmt = lease.statement();
+                if (spec.getLimit() >= 0 && sqlDialect.limitClause() == null) {
+                    pstmt.setMaxRows(spec.getLimit());
+                }
+                for (int i = 0; i < params.size(); i++) {
+                    pstmt.setObject(i + 1, params.get(i));
+                }
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    ResultTable table = readTable(rs);
+                    trace.succeeded(table.size());
+                    return table;
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.severe("Error querying test data: " + e.getMessage());
+            throw e;
+        } finally {
+            releaseConnection(conn);
+            complete(trace);
+        }
+    }
+
+    /**
+     * Retrieves the rows whose key column matches any of the given keys, in as
+     * few round trips as the database allows: small sets use IN lists padded
+     * to a power of two, large sets a single array parameter on PostgreSQL or
+     * a join against a temporary table of the keys on H2, MySQL, SQLite and
+     * SQL Server. Duplicate keys are ignored.
+     * @param tableName Name of the table
+     * @param keyColumn Column the keys match
+     * @param keys Key values
+     * @return Matching rows, in no particular order
+     * @throws SQLException if retrieval fails
+     */
+    public ResultTable retrieveByKeys(String tableName, String keyColumn, Collection<?> keys) throws SQLException {
+        List<Object> distinctKeys = KeyLookup.distinct(keys);
+        OperationTrace trace = new OperationTrace("SELECT_KEYS", tableName, distinctKeys.size());
+        Connection conn = acquireConnection();
+        trace.connectionAcquired();
+        try {
+            ResultTable table = KeyLookup.select(conn, dialect(conn), statementCache, tableName, keyColumn,
+                    distinctKeys);
+            trace.succeeded(table.size());
+            return table;
+        } catch (SQLException e) {
+            LOGGER.severe("Error retrieving test data by keys: " + e.getMessage());
+            throw e;
+        } finally {
+            releaseConnection(conn);
+            complete(trace);
+        }
+    }
+
+    /**
+     * Pages through a table in key order using keyset (seek) pagination: each
+     * page is read with "key > last key seen" instead of OFFSET, so late pages
+     * cost the same as early ones. While the caller processes one page, the
+     * next is fetched on a background thread. The iterator must be closed.
+     * @param tableName Name of the table
+     * @param conditions Map of column names and values to filter
+     * @param keyColumn Unique, indexed column to order and seek by
+     * @param pageSize Rows per page
+     * @return Iterator over the pages in key order
+     */
+    public KeysetPageIterator retrievePages(String tableName, Map<String, Object> conditions, String keyColumn,
+                                            int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        List<String> conditionColumns = new ArrayList<>(conditions.size());
+        List<Object> params = new ArrayList<>(conditions.size());
+
+        for (Map.Entry<String, Object> entry : conditions.entrySet()) {
+            conditionColumns.add(entry.getKey());
+            params.add(entry.getValue());
+        }
+        // Inside an isolated scope the pages must come from the scope's connection, i.e. this thread
+        return new KeysetPageIterator(this, tableName, conditionColumns, params, keyColumn, pageSize,
+                currentScope() == null);
+    }
+
+    /**
+     * Reads one keyset page
+     * @param tableName Name of the table
+     * @param conditionColumns Equality filter columns
+     * @param params Filter values matching conditionColumns
+     * @param keyColumn Column to order and seek by
+     * @param afterKey Last key of the previous page, or null for the first page
+     * @param pageSize Maximum rows to return, applied with setMaxRows
+     * @return Page rows in key order
+     * @throws SQLException if retrieval fails
+     */
+    ResultTable fetchPage(String tableName, List<String> conditionColumns, List<Object> params, String keyColumn,
+                          Object afterKey, int pageSize) throws SQLException {
+        StatementCache.Key key = new StatementCache.Key(afterKey == null ? "PAGE_FIRST" : "PAGE_NEXT", tableName,
+                Collections.singletonList(keyColumn), conditionColumns);
+        String sql = statementCache.sql(key, () -> {
+            StringBuilder builder = appendWhere(new StringBuilder("SELECT * FROM ").append(tableName),
+                    conditionColumns);
+            if (afterKey != null) {
+                builder.append(conditionColumns.isEmpty() ? " WHERE " : " AND ").append(keyColumn).append(" > ?");
+            }
+            return builder.append(" ORDER BY ").append(keyColumn).toString();
+        });
+
+        OperationTrace trace = new OperationTrace("PAGE", tableName, params.size() + (afterKey != null ? 1 : 0));
+        trace.sql = sql;
+        Connection conn = acquireConnection();
+        trace.connectionAcquired();
+        try (StatementCache.Lease lease = statementCache.prepare(conn, key, sql, false)) {
+            PreparedStatement pstmt = lease.statement();
+            // setMaxRows is the portable LIMIT; the cached statement is shared, so set it on every use
+            pstmt.setMaxRows(pageSize);
+            pstmt.setFetchSize(pageSize);
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            if (afterKey != null) {
+                pstmt.setObject(params.size() + 1, afterKey);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ResultTable table = readTable(rs);
+                trace.succeeded(table.size());
+                return table;
+            }
+        } catch (SQLException e) {
+            LOGGER.severe("Error retrieving test data page: " + e.getMessage());
+            throw e;
+        } finally {
+            releaseConnection(conn);
+            complete(trace);
+        }
+    }
+
+    /**
+     * Streams test data from a specified table through a forward-only cursor.
+     * Rows are read from the database as the stream is consumed, so memory use
+     * does not grow with the table. The stream holds a connection until it is
+     * closed and must be used in a try-with-resources block.
+     * @param tableName Name of the table
+     * @param conditions Map of column names and values to filter
+     * @param fetchSize Rows fetched per round trip
+     * @return Lazily populated stream of result maps
+     * @throws SQLException if the query cannot be started
+     */
+    public Stream<Map<String, Object>> streamTestData(String tableName, Map<String, Object> conditions,
+                                                      int fetchSize) throws SQLException {
+        List<String> conditionColumns = new ArrayList<>(conditions.size());
+        List<Object> params = new ArrayList<>(conditions.size());
+
+        for (Map.Entry<String, Object> entry : conditions.entrySet()) {
+            conditionColumns.add(entry.getKey());
+            params.add(entry.getValue());
+        }
+
+        StatementCache.Key key = new StatementCache.Key("SELECT", tableName, Collections.emptyList(), conditionColumns);
+        String sql = statementCache.sql(key, () ->
+                appendWhere(new StringBuilder("SELECT * FROM ").append(tableName), conditionColumns).toString());
+
+        // Recorded when the stream is closed, covering the whole time the cursor was open;
+        // the slow-statement log only sees the time until the cursor opened
+        OperationTrace trace = new OperationTrace("STREAM", tableName, params.size());
+        trace.sql = sql;
+        long[] rowCount = {0};
+        try {
+            return streamQuery(sql, params, fetchSize, metaData -> {
+                trace.statementExecuted();
+                String[] names = ResultTable.columnNames(metaData);
+                return rs -> {
+                    Map<String, Object> row = new HashMap<>(names.length * 4 / 3 + 1);
+                    for (int i = 0; i < names.length; i++) {
+                        row.put(names[i], rs.getObject(i + 1));
+                    }
+                    rowCount[0]++;
+                    return row;
+                };
+            }).onClose(() -> {
+                trace.succeeded(rowCount[0]);
+                complete(trace);
+            });
+        } catch (SQLException | RuntimeException e) {
+            complete(trace);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a query on a dedicated forward-only, read-only cursor and exposes its rows as a stream
+     * @param sql Query text
+     * @param params Bind parameters
+     * @param fetchSize Rows fetched per round trip
+     * @param readerFactory Creates the row converter from the result metadata
+     * @return Stream that releases the cursor and connection when closed
+     * @throws SQLException if the query cannot be started
+     */
+    <T> Stream<T> streamQuery(String sql, List<Object> params, int fetchSize,
+                              RowReaderFactory<T> readerFactory) throws SQLException {
+        Connection conn = acquireConnection();
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        boolean autoCommit = true;
+        try {
+            SqlDialect sqlDialect = dialect(conn);
+            autoCommit = conn.getAutoCommit();
+            if (autoCommit && sqlDialect.cursorRequiresTransaction()) {
+                conn.setAutoCommit(false);
+            }
+
+            pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            pstmt.setFetchSize(sqlDialect.streamingFetchSize(fetchSize));
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            rs = pstmt.executeQuery();
+            RowReader<T> reader = readerFactory.create(rs.getMetaData());
+
+            ResultSet cursor = rs;
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!cursor.next()) {
+                            return false;
+                        }
+                        action.accept(reader.read(cursor));
+                        return true;
+                    } catch (SQLException e) {
+                        LOGGER.severe("Error streaming test data: " + e.getMessage());
+                        throw new UncheckedSQLException("Error streaming test data", e);
+                    }
+                }
+            };
+
+            PreparedStatement statement = pstmt;
+            boolean restoreAutoCommit = autoCommit;
+            return StreamSupport.stream(rows, false)
+                    .onClose(() -> closeCursor(conn, statement, cursor, restoreAutoCommit));
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.severe("Error retrieving test data: " + e.getMessage());
+            closeCursor(conn, pstmt, rs, autoCommit);
+            throw e;
+        }
+    }
+
+    private void closeCursor(Connection conn, PreparedStatement pstmt, ResultSet rs, boolean autoCommit) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (pstmt != null) {
+                pstmt.close();
+            }
+            if (autoCommit && !conn.getAutoCommit()) {
+                // The cursor only read data; end its transaction before handing the connection back
+                conn.commit();
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.warning("Error closing cursor: " + e.getMessage());
+        } finally {
+            releaseConnection(conn);
+        }
+    }
+
+    /**
+     * Updates test data in a specified table
+     * @param tableName Name of the table
+     * @param updateData Map of columns to update
+     * @param conditions Map of conditions for update
+     * @return Number of rows updated
+     * @throws SQLException if update fails
+     */
+    public int updateTestData(String tableName, Map<String, Object> updateData, 
+                               Map<String, Object> conditions) throws SQLException {
+        if (updateData.isEmpty() || conditions.isEmpty()) {
+            throw new IllegalArgumentException("Update requires at least one column and one condition");
+        }
+
+        List<String> setColumns = new ArrayList<>(updateData.size());
+        List<String> conditionColumns = new ArrayList<>(conditions.size());
+        List<Object> params = new ArrayList<>(updateData.size() + conditions.size());
+
+        // SET values bind before WHERE values
+        for (Map.Entry<String, Object> entry : updateData.entrySet()) {
+            setColumns.add(entry.getKey());
+            params.add(entry.getValue());
+        }
+        for (Map.Entry<String, Object> entry : conditions.entrySet()) {
+            conditionColumns.add(entry.getKey());
+            params.add(entry.getValue());
+        }
+
+        StatementCache.Key key = new StatementCache.Key("UPDATE", tableName, setColumns, conditionColumns);
+        String sql = statementCache.sql(key, () -> buildUpdateSql(tableName, setColumns, conditionColumns));
+
+        OperationTrace trace = new OperationTrace("UPDATE", tableName, params.size());
+        trace.sql = sql;
+        Connection conn = acquireConnection();
+        trace.connectionAcquired();
+        try (StatementCache.Lease lease = statementCache.prepare(conn, key, sql, false)) {
+            PreparedStatement pstmt = lease.statement();
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+
+            int updated = pstmt.executeUpdate();
+            trace.succeeded(updated);
+            return updated;
+        } catch (SQLException e) {
+            LOGGER.severe("Error updating test data: " + e.getMessage());
+            throw e;
+        } finally {
+            releaseConnection(conn);
+            tableWritten(tableName);
+            complete(trace);
+        }
+    }
+
+    /**
+     * Updates many row sets using JDBC batches. Items with the same SET and
+     * condition columns share one statement, and each chunk of batchSize items
+     * is committed on its own, so a failure leaves earlier chunks in place.
+     * @param tableName Name of the table
+     * @param updates Column values and conditions, one pair per item
+     * @return Rows updated per item, in input order
+     * @throws SQLException if an update fails
+     */
+    public int[] updateTestDataBatch(String tableName, List<RowUpdate> updates) throws SQLException {
+        return updateTestDataBatch(tableName, updates, batchSize);
+    }
+
+    /**
+     * Updates many row sets using JDBC batches, committing every commitInterval items
+     * @param tableName Name of the table
+     * @param updates Column values and conditions, one pair per item
+     * @param commitInterval Items per commit; 0 commits once, after all items succeeded
+     * @return Rows updated per item, in input order; Statement.SUCCESS_NO_INFO where the driver gave no count
+     * @throws SQLException if an update fails
+     */
+    public int[] updateTestDataBatch(String tableName, List<RowUpdate> updates, int commitInterval)
+            throws SQLException {
+        Map<StatementCache.Key, BatchGroup> groups = new LinkedHashMap<>();
+        List<Object[]> params = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            RowUpdate update = updates.get(i);
+            List<String> setColumns = new ArrayList<>(new TreeSet<>(update.getUpdateData().keySet()));
+            List<String> conditionColumns = new ArrayList<>(new TreeSet<>(update.getConditions().keySet()));
+            StatementCache.Key key = new StatementCache.Key("UPDATE", tableName, setColumns, conditionColumns);
+            groups.computeIfAbsent(key, k -> new BatchGroup(statementCache.sql(k, () ->
+                    buildUpdateSql(tableName, setColumns, conditionColumns)))).items.add(i);
+
+            // SET values bind before WHERE values
+            Object[] values = new Object[setColumns.size() + conditionColumns.size()];
+            for (int c = 0; c < setColumns.size(); c++) {
+                values[c] = update.getUpdateData().get(setColumns.get(c));
+            }
+            for (int c = 0; c < conditionColumns.size(); c++) {
+                values[setColumns.size() + c] = update.getConditions().get(conditionColumns.get(c));
+            }
+            params.add(values);
+        }
+        return executeBatches("UPDATE_BATCH", "updating", tableName, groups.values(), updates.size(),
+                params::get, commitInterval);
+    }
+
+    /**
+     * Items of a batch call sharing one statement shape
+     */
+    private static final class BatchGroup {
+        final String sql;
+        final List<Integer> items = new ArrayList<>();
+
+        BatchGroup(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * Runs each group's items as JDBC batches of up to batchSize, committing
+     * every commitInterval items unless the connection belongs to an isolated scope
+     * @param params Bind values of an item, by input index
+     * @return Update counts by input index
+     */
+    private int[] executeBatches(String operation, String verb, String tableName, Collection<BatchGroup> groups,
+                                 int itemCount, IntFunction<Object[]> params, int commitInterval)
+            throws SQLException {
+        if (commitInterval < 0) {
+            throw new IllegalArgumentException("commitInterval must not be negative");
+        }
+        int[] counts = new int[itemCount];
+        if (itemCount == 0) {
+            return counts;
+        }
+
+        OperationTrace trace = new OperationTrace(operation, tableName);
+        Connection conn = acquireConnection();
+        trace.connectionAcquired();
+        boolean manageTransaction = !isScoped(conn);
+        boolean autoCommit = true;
+        try {
+            if (manageTransaction) {
+                autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+            }
+            long rows = 0;
+            int uncommitted = 0;
+            for (BatchGroup group : groups) {
+                try (PreparedStatement pstmt = conn.prepareStatement(group.sql)) {
+                    int pending = 0;
+                    for (int n = 0; n < group.items.size(); n++) {
+                        Object[] values = params.apply(group.items.get(n));
+                        for (int i = 0; i < values.length; i++) {
+                            pstmt.setObject(i + 1, values[i]);
+                        }
+                        pstmt.addBatch();
+                        pending++;
+                        uncommitted++;
+
+                        boolean commitDue = manageTransaction && commitInterval > 0 && uncommitted == commitInterval;
+                        if (pending == batchSize || commitDue || n == group.items.size() - 1) {
+                            int[] results = pstmt.executeBatch();
+                            int first = n - pending + 1;
+                            for (int r = 0; r < results.length && r < pending; r++) {
+                                counts[group.items.get(first + r)] = results[r];
+                                rows += Math.max(0, results[r]);
+                            }
+                            pending = 0;
+                            if (commitDue) {
+                                conn.commit();
+                                uncommitted = 0;
+                            }
+                        }
+                    }
+                }
+            }
+            if (manageTransaction && uncommitted > 0) {
+                conn.commit();
+            }
+            trace.succeeded(rows);
+            return counts;
+        } catch (SQLException e) {
+            if (manageTransaction) {
+                rollbackQuietly(conn);
+            }
+            LOGGER.severe("Error batch " + verb + " test data: " + e.getMessage());
+            throw e;
+        } finally {
+            if (manageTransaction) {
+                restoreAutoCommit(conn, autoCommit);
+            }
+            releaseConnection(conn);
+            tableWritten(tableName);
+            complete(trace);
+        }
+    }
+
+    /**
+     * Deletes test data from a specified table
+     * @param tableName Name of the table
+     * @param conditions Map of conditions for deletion
+     * @return Number of rows deleted
+     * @throws SQLException if deletion fails
+     */
+    public int deleteTestData(String tableName, Map<String, Object> conditions) throws SQLException {
+        List<String> conditionColumns = new ArrayList<>(conditions.size());
+        List<Object> params = new ArrayList<>(conditions.size());
+
+        for (Map.Entry<String, Object> entry : conditions.entrySet()) {
+            conditionColumns.add(entry.getKey());
+            params.add(entry.getValue());
+        }
+
+        StatementCache.Key key = new StatementCache.Key("DELETE", tableName, Collections.emptyList(), conditionColumns);
+        String sql = statementCache.sql(key, () ->
+                appendWhere(new StringBuilder("DELETE FROM ").append(tableName), conditionColumns).toString());
+
+        OperationTrace trace = new OperationTrace("DELETE", tableName, params.size());
+        trace.sql = sql;
+        Connection conn = acquireConnection();
+        trace.connectionAcquired();
+        try (StatementCache.Lease lease = statementCache.prepare(conn, key, sql, false)) {
+            PreparedStatement pstmt = lease.statement();
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+
+            int deleted = pstmt.executeUpdate();
+            trace.succeeded(deleted);
+            return deleted;
+        } catch (SQLException e) {
+            LOGGER.severe("Error deleting test data: " + e.getMessage());
+            throw e;
+        } finally {
+            releaseConnection(conn);
+            tableWritten(tableName);
+            complete(trace);
+        }
+    }
+
+    /**
+     * Deletes many row sets using JDBC batches. Items with the same condition
+     * columns share one statement, and each chunk of batchSize items is
+     * committed on its own, so a failure leaves earlier chunks in place.
+     * @param tableName Name of the table
+     * @param conditions Map of conditions per item
+     * @return Rows deleted per item, in input order
+     * @throws SQLException if a deletion fails
+     */
+    public int[] deleteTestDataBatch(String tableName, List<Map<String, Object>> conditions) throws SQLException {
+        return deleteTestDataBatch(tableName, conditions, batchSize);
+    }
+
+    /**
+     * Deletes many row sets using JDBC batches, committing every commitInterval items
+     * @param tableName Name of the table
+     * @param conditions Map of conditions per item
+     * @param commitInterval Items per commit; 0 commits once, after all items succeeded
+     * @return Rows deleted per item, in input order; Statement.SUCCESS_NO_INFO where the driver gave no count
+     * @throws SQLException if a deletion fails
+     */
+    public int[] deleteTestDataBatch(String tableName, List<Map<String, Object>> conditions, int commitInterval)
+            throws SQLException {
+        Map<StatementCache.Key, BatchGroup> groups = new LinkedHashMap<>();
+        List<Object[]> params = new ArrayList<>(conditions.size());
+        for (int i = 0; i < conditions.size(); i++) {
+            Map<String, Object> item = conditions.get(i);
+            List<String> conditionColumns = new ArrayList<>(new TreeSet<>(item.keySet()));
+            StatementCache.Key key = new StatementCache.Key("DELETE", tableName, Collections.emptyList(),
+                    conditionColumns);
+            groups.computeIfAbsent(key, k -> new BatchGroup(statementCache.sql(k, () ->
+                    appendWhere(new StringBuilder("DELETE FROM ").append(tableName), conditionColumns)
+                            .toString()))).items.add(i);
+            params.add(toValues(item, conditionColumns));
+        }
+        return executeBatches("DELETE_BATCH", "deleting", tableName, groups.values(), conditions.size(),
+                params::get, commitInterval);
+    }
+
+    /**
+     * Deletes the rows whose key column matches any of the given keys in one
+     * transaction, choosing IN lists, an array parameter or a temporary table
+     * by set size as retrieveByKeys does. Inside an isolated scope the scope's
+     * transaction is used.
+     * @param tableName Name of the table
+     * @param keyColumn Column the keys match
+     * @param keys Key values
+     * @return Number of rows deleted
+     * @throws SQLException if deletion fails
+     */
+    public long deleteByKeys(String tableName, String keyColumn, Collection<?> keys) throws SQLException {
+        List<Object> distinctKeys = KeyLookup.distinct(keys);
+        OperationTrace trace = new OperationTrace("DELETE_KEYS", tableName, distinctKeys.size());
+        Connection conn = acquireConnection();
+        trace.connectionAcquired();
+        boolean manageTransaction = !isScoped(conn);
+        boolean autoCommit = true;
+        try {
+            if (manageTransaction) {
+                autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+            }
+            long deleted = KeyLookup.delete(conn, dialect(conn), statementCache, tableName, keyColumn,
+                    distinctKeys);
+            if (manageTransaction) {
+                conn.commit();
+            }
+            trace.succeeded(deleted);
+            return deleted;
+        } catch (SQLException e) {
+            if (manageTransaction) {
+                rollbackQuietly(conn);
+            }
+            LOGGER.severe("Error deleting test data by keys: " + e.getMessage());
+            throw e;
+        } finally {
+            if (manageTransaction) {
+                restoreAutoCommit(conn, autoCommit);
+            }
+            releaseConnection(conn);
+            tableWritten(tableName);
+            complete(trace);
+        }
+    }
+
+    /**
+     * Central completion hook for every instrumented operation
+     */
+    private void complete(OperationTrace trace) {
+        long elapsedNanos = trace.elapsedNanos();
+        metrics.record(trace.operation, trace.table, trace.rows, trace.failed, elapsedNanos);
+        trace.commitEvent(elapsedNanos);
+        SlowStatementLog slowLog = slowStatementLog;
+        if (slowLog != null) {
+            slowLog.record(trace.statement(), trace.statementNanos(elapsedNanos));
+        }
+    }
+
+    /**
+     * Loads database configuration from a properties file
+     * @param configPath Path to the properties file
+     * @return Properties object with database configuration
+     * @throws IOException if file reading fails
+     */
+    public static Properties loadDatabaseConfig(String configPath) throws IOException {
+        Properties props = new Properties();
+        try (FileInputStream fis = new FileInputStream(configPath)) {
+            props.load(fis);
+        }
+        return props;
+    }
+
+    /**
+     * Example usage method demonstrating the functionality
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        try {
+            // Load database configuration
+            Properties dbConfig = loadDatabaseConfig("db.properties");
+
+            // Create TestDataManager instance
+            TestDataManager manager = new TestDataManager(
+                dbConfig.getProperty("db.url"),
+                dbConfig.getProperty("db.username"),
+                dbConfig.getProperty("db.password")
+            );
+
+            // Establish connection
+            manager.connect();
+
+            // Example: Insert test data
+            Map<String, Object> testData = new HashMap<>();
+            testData.put("username", "testuser");
+            testData.put("email", "testuser@example.com");
+            int userId = manager.insertTestData("users", testData);
+
+            // Example: Retrieve test data
+            Map<String, Object> retrieveConditions = new HashMap<>();
+            retrieveConditions.put("username", "testuser");
+            List<Map<String, Object>> results = manager.retrieveTestData("users", retrieveConditions);
+
+            // Example: Update test data
+            Map<String, Object> updateData = new HashMap<>();
+            updateData.put("email", "updated@example.com");
+            Map<String, Object> updateConditions = new HashMap<>();
+            updateConditions.put("username", "testuser");
+            manager.updateTestData("users", updateData, updateConditions);
+
+            // Close connection
+            manager.disconnect();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
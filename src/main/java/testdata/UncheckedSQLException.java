@@ -0,0 +1,20 @@
+package testdata;
+
+import java.sql.SQLException;
+
+/**
+ * Wraps a SQLException raised where a checked exception cannot be thrown,
+ * such as inside a Stream, Iterator or CompletableFuture.
+ */
+public class UncheckedSQLException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public UncheckedSQLException(String message, SQLException cause) {
+        super(message, cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
@@ -0,0 +1,71 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncTestDataManagerTest {
+    private static final String URL = "jdbc:h2:mem:async_manager;DB_CLOSE_DELAY=-1";
+
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager(URL, "sa", "", new ConnectionPool.Config().minSize(1).maxSize(3));
+        manager.connect();
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS event");
+            stmt.execute("CREATE TABLE event (id INT PRIMARY KEY, kind VARCHAR(10))");
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void manyOperationsShareTheBoundedPool() throws Exception {
+        try (AsyncTestDataManager async = new AsyncTestDataManager(manager)) {
+            List<CompletableFuture<Integer>> inserts = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                inserts.add(async.insertAsync("event", Map.of("id", i, "kind", i % 2 == 0 ? "even" : "odd")));
+            }
+            CompletableFuture.allOf(inserts.toArray(new CompletableFuture<?>[0])).get();
+
+            assertEquals(100, async.retrieveAsync("event", Map.of("kind", "odd")).get().size());
+            assertEquals(100, async.deleteAsync("event", Map.of("kind", "even")).get());
+        }
+    }
+
+    @Test
+    void failuresCompleteTheFutureExceptionally() {
+        try (AsyncTestDataManager async = new AsyncTestDataManager(manager, 2)) {
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> async.insertAsync("missing_table", Map.of("id", 1)).get());
+            assertInstanceOf(SQLException.class, failure.getCause());
+        }
+    }
+
+    @Test
+    void unpooledManagerIsRejected() {
+        TestDataManager unpooled = new TestDataManager(URL, "sa", "");
+        assertThrows(IllegalArgumentException.class, () -> new AsyncTestDataManager(unpooled));
+    }
+}
@@ -0,0 +1,90 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BulkLoaderTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:bulk_loader;DB_CLOSE_DELAY=-1", "sa", "");
+        manager.connect();
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS child");
+            stmt.execute("CREATE TABLE child (id INT PRIMARY KEY, name VARCHAR(50), qty INT)");
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void utilDatesLoadAsTimestamps() throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS visit");
+            stmt.execute("CREATE TABLE visit (id INT PRIMARY KEY, seen TIMESTAMP)");
+        } finally {
+            manager.releaseConnection(conn);
+        }
+        Timestamp seen = Timestamp.valueOf("2024-05-06 07:08:09");
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(seen.getTime());
+        List<Object[]> rows = Arrays.asList(
+                new Object[] {1, new java.util.Date(seen.getTime())},
+                new Object[] {2, calendar});
+
+        assertEquals(2, manager.bulkLoad("visit", List.of("id", "seen"), rows.iterator()));
+
+        assertEquals(seen, manager.retrieveTestData("visit", Map.of("id", 1)).get(0).get("SEEN"));
+        assertEquals(seen, manager.retrieveTestData("visit", Map.of("id", 2)).get(0).get("SEEN"));
+    }
+
+    @Test
+    void embeddedH2UsesCsvRead() throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try {
+            assertTrue(BulkLoader.supports(SqlDialect.H2, conn));
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    @Test
+    void nullsLoadAsSqlNull() throws SQLException {
+        List<Object[]> rows = Arrays.asList(
+                new Object[] {1, "a", 10},
+                new Object[] {2, null, null},
+                new Object[] {3, "\\N", 30});
+
+        long loaded = manager.bulkLoad("child", List.of("id", "name", "qty"), rows.iterator());
+
+        assertEquals(3, loaded);
+        Map<String, Object> second = manager.retrieveTestData("child", Map.of("id", 2)).get(0);
+        assertNull(second.get("NAME"));
+        assertNull(second.get("QTY"));
+        // A quoted \N is data, not the NULL token
+        assertEquals("\\N", manager.retrieveTestData("child", Map.of("id", 3)).get(0).get("NAME"));
+        assertEquals(10, manager.retrieveTestData("child", Map.of("id", 1)).get(0).get("QTY"));
+    }
+}
@@ -0,0 +1,72 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolTest {
+    private static final String URL = "jdbc:h2:mem:connection_pool;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void exhaustedPoolTimesOut() throws SQLException {
+        try (ConnectionPool pool = new ConnectionPool(URL, "sa", "",
+                new ConnectionPool.Config().minSize(1).maxSize(2).maxWaitMillis(100))) {
+            Connection first = pool.borrow();
+            Connection second = pool.borrow();
+            assertEquals(2, pool.getOpenCount());
+
+            long started = System.nanoTime();
+            assertThrows(SQLException.class, pool::borrow);
+            assertTrue(System.nanoTime() - started >= 90_000_000L);
+
+            pool.release(second);
+            assertSame(second, pool.borrow());
+            pool.release(first);
+        }
+    }
+
+    @Test
+    void releasedConnectionIsResetAndReused() throws SQLException {
+        try (ConnectionPool pool = new ConnectionPool(URL, "sa", "",
+                new ConnectionPool.Config().minSize(0).maxSize(1))) {
+            Connection conn = pool.borrow();
+            conn.setAutoCommit(false);
+            pool.release(conn);
+
+            Connection again = pool.borrow();
+            assertSame(conn, again);
+            assertTrue(again.getAutoCommit());
+            pool.release(again);
+            assertEquals(1, pool.getIdleCount());
+        }
+    }
+
+    @Test
+    void releaseAfterCloseClosesConnection() throws SQLException {
+        ConnectionPool pool = new ConnectionPool(URL, "sa", "", new ConnectionPool.Config().minSize(2).maxSize(2));
+        Connection conn = pool.borrow();
+        pool.close();
+        assertEquals(1, pool.getOpenCount());
+
+        pool.release(conn);
+
+        assertTrue(conn.isClosed());
+        assertEquals(0, pool.getOpenCount());
+        assertEquals(0, pool.getIdleCount());
+        assertThrows(SQLException.class, pool::borrow);
+    }
+
+    @Test
+    void negativeTimeoutsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPool.Config().idleTimeoutMillis(-1));
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionPool.Config().maxWaitMillis(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConnectionPool(URL, "sa", "", new ConnectionPool.Config().minSize(3).maxSize(2)));
+    }
+}
@@ -0,0 +1,90 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DataGeneratorTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:data_generator;DB_CLOSE_DELAY=-1", "sa", "",
+                new ConnectionPool.Config().minSize(1).maxSize(4));
+        manager.connect();
+        execute("DROP TABLE IF EXISTS other", "DROP TABLE IF EXISTS coded", "DROP TABLE IF EXISTS child",
+                "DROP TABLE IF EXISTS parent",
+                "CREATE TABLE other (id INT PRIMARY KEY, code INT UNIQUE, s VARCHAR(20))",
+                "CREATE TABLE coded (code VARCHAR(4) PRIMARY KEY, n INT)",
+                "CREATE TABLE parent (id INT PRIMARY KEY, code INT UNIQUE)",
+                "CREATE TABLE child (id INT PRIMARY KEY, parent_code INT UNIQUE REFERENCES parent (code))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void integerKeysStayUniqueAcrossPartitionsAndRuns() throws SQLException {
+        DataGenerator generator = new DataGenerator(manager, "other", 7);
+
+        assertEquals(3000, generator.generate(3000, 4));
+        // A second run continues after the keys already present
+        assertEquals(2000, generator.generate(2000, 4));
+
+        assertEquals(5000, count("SELECT COUNT(DISTINCT id) FROM other"));
+        assertEquals(5000, count("SELECT COUNT(DISTINCT code) FROM other"));
+        assertEquals(5000, count("SELECT MAX(id) FROM other"));
+    }
+
+    @Test
+    void shortTextKeyNeedsExplicitGenerator() throws SQLException {
+        assertThrows(SQLException.class, () -> new DataGenerator(manager, "coded", 7).generate(10));
+
+        long loaded = new DataGenerator(manager, "coded", 7)
+                .column("code", DataGenerator.pattern("K###"))
+                .column("n", DataGenerator.sequence(0, 1))
+                .generate(1);
+        assertEquals(1, loaded);
+    }
+
+    @Test
+    void parentKeysAreTakenInKeyOrder() throws SQLException {
+        // Stored in id order, which is the reverse of code order
+        execute("INSERT INTO parent VALUES (1, 30), (2, 20), (3, 10)");
+
+        assertEquals(3, new DataGenerator(manager, "child", 7).generate(3));
+
+        assertEquals(3, count("SELECT COUNT(*) FROM child WHERE parent_code = id * 10"));
+    }
+
+    private long count(String sql) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    private void execute(String... statements) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+}
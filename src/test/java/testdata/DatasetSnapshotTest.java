@@ -0,0 +1,146 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DatasetSnapshotTest {
+    private TestDataManager manager;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:dataset_snapshot;DB_CLOSE_DELAY=-1", "sa", "");
+        manager.connect();
+        execute("DROP TABLE IF EXISTS line", "DROP TABLE IF EXISTS account",
+                "CREATE TABLE account (id INT PRIMARY KEY, name VARCHAR(50), balance DECIMAL(12, 2),"
+                        + " opened DATE, active BOOLEAN, avatar VARBINARY(16))",
+                "CREATE TABLE line (id BIGINT PRIMARY KEY, account_id INT, amount DOUBLE, booked TIMESTAMP)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void restoreReadsBackWhatSnapshotWrote() throws SQLException, IOException {
+        for (int i = 1; i <= 250; i++) {
+            Map<String, Object> account = new HashMap<>();
+            account.put("id", i);
+            account.put("name", i % 10 == 0 ? null : "account " + i);
+            account.put("balance", i % 7 == 0 ? null : new BigDecimal(i + ".50"));
+            account.put("opened", Date.valueOf("2024-01-01"));
+            account.put("active", i % 2 == 0);
+            account.put("avatar", i % 3 == 0 ? null : new byte[] {(byte) i, 1, 2});
+            manager.insertTestData("account", account);
+        }
+        manager.insertTestData("line", Map.of("id", 1L, "account_id", 1, "amount", 9.75,
+                "booked", Timestamp.valueOf("2024-02-03 04:05:06")));
+        List<Map<String, Object>> accounts = sorted(manager.retrieveTestData("account", Collections.emptyMap()));
+
+        Path file = dir.resolve("data.snap");
+        DatasetSnapshot snapshot = new DatasetSnapshot(manager);
+        assertEquals(251, snapshot.snapshot(List.of("account", "line"), file));
+
+        execute("DELETE FROM line", "DELETE FROM account");
+        assertEquals(251, snapshot.restore(file));
+
+        List<Map<String, Object>> restored = sorted(manager.retrieveTestData("account", Collections.emptyMap()));
+        assertEquals(accounts.size(), restored.size());
+        for (int i = 0; i < accounts.size(); i++) {
+            Map<String, Object> expected = new HashMap<>(accounts.get(i));
+            Map<String, Object> actual = new HashMap<>(restored.get(i));
+            assertArrayEquals((byte[]) expected.remove("AVATAR"), (byte[]) actual.remove("AVATAR"));
+            assertEquals(expected, actual);
+        }
+        assertEquals(9.75, manager.retrieveTestData("line", Map.of("id", 1L)).get(0).get("AMOUNT"));
+    }
+
+    @Test
+    void offsetTimestampsKeepTheirOffset() throws SQLException, IOException {
+        execute("DROP TABLE IF EXISTS event",
+                "CREATE TABLE event (id INT PRIMARY KEY, at TIMESTAMP(9) WITH TIME ZONE)");
+        OffsetDateTime at = OffsetDateTime.of(2024, 3, 31, 1, 30, 15, 123456789, ZoneOffset.ofHoursMinutes(5, 30));
+        manager.insertTestData("event", Map.of("id", 1, "at", at));
+        manager.insertTestData("event", Collections.singletonMap("id", 2));
+
+        Path file = dir.resolve("event.snap");
+        DatasetSnapshot snapshot = new DatasetSnapshot(manager);
+        snapshot.snapshot(List.of("event"), file);
+        execute("DELETE FROM event");
+        assertEquals(2, snapshot.restore(file));
+
+        assertEquals(at, manager.retrieveTestData("event", Map.of("id", 1)).get(0).get("AT"));
+        assertNull(manager.retrieveTestData("event", Map.of("id", 2)).get(0).get("AT"));
+    }
+
+    @Test
+    void emptyTableRoundTrips() throws SQLException, IOException {
+        Path file = dir.resolve("empty.snap");
+        DatasetSnapshot snapshot = new DatasetSnapshot(manager);
+        assertEquals(0, snapshot.snapshot(List.of("line"), file));
+        assertEquals(0, snapshot.restore(file));
+    }
+
+    @Test
+    void truncatedSnapshotRestoresNothing() throws SQLException, IOException {
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (long i = 1; i <= 2000; i++) {
+            lines.add(Map.of("id", i, "account_id", (int) i, "amount", i * 1.5));
+        }
+        manager.insertTestDataBatch("line", lines);
+        Path file = dir.resolve("line.snap");
+        new DatasetSnapshot(manager).snapshot(List.of("line"), file);
+        execute("DELETE FROM line");
+
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length * 2 / 3));
+
+        assertThrows(IOException.class, () -> new DatasetSnapshot(manager).restore(file));
+        assertEquals(0, manager.retrieveTestData("line", Collections.emptyMap()).size());
+    }
+
+    private void execute(String... statements) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    private static List<Map<String, Object>> sorted(List<Map<String, Object>> rows) {
+        List<Map<String, Object>> copy = new ArrayList<>(rows);
+        copy.sort((a, b) -> Integer.compare((Integer) a.get("ID"), (Integer) b.get("ID")));
+        return copy;
+    }
+}
@@ -0,0 +1,94 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DependencySeederTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:dependency_seeder;DB_CLOSE_DELAY=-1", "sa", "",
+                new ConnectionPool.Config().minSize(1).maxSize(3));
+        manager.connect();
+        execute("DROP TABLE IF EXISTS order_line", "DROP TABLE IF EXISTS orders", "DROP TABLE IF EXISTS customer",
+                "DROP TABLE IF EXISTS product",
+                "CREATE TABLE customer (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(20))",
+                "CREATE TABLE product (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(20))",
+                "CREATE TABLE orders (id INT AUTO_INCREMENT PRIMARY KEY,"
+                        + " customer_id INT NOT NULL REFERENCES customer (id))",
+                "CREATE TABLE order_line (id INT AUTO_INCREMENT PRIMARY KEY,"
+                        + " order_id INT NOT NULL REFERENCES orders (id),"
+                        + " product_id INT NOT NULL REFERENCES product (id), qty INT)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void parentsAreInsertedFirstAndRefsResolveToGeneratedKeys() throws SQLException {
+        // Offset the sequences so generated keys differ from row positions
+        execute("INSERT INTO customer (name) VALUES ('existing')");
+
+        Map<String, List<Map<String, Object>>> dataset = new LinkedHashMap<>();
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            lines.add(Map.of("order_id", DependencySeeder.ref("orders", i % 3),
+                    "product_id", DependencySeeder.ref("product", i % 2), "qty", i));
+        }
+        dataset.put("order_line", lines);
+        dataset.put("orders", List.of(
+                Map.of("customer_id", DependencySeeder.ref("customer", 1)),
+                Map.of("customer_id", DependencySeeder.ref("customer", 0)),
+                Map.of("customer_id", DependencySeeder.ref("customer", 1))));
+        dataset.put("customer", List.of(Map.of("name", "ann"), Map.of("name", "bob")));
+        dataset.put("product", List.of(Map.of("name", "pen"), Map.of("name", "ink")));
+
+        DependencySeeder.SeedResult result = new DependencySeeder(manager, 3).seed(dataset);
+
+        assertEquals(3, result.getLevels().size());
+        assertEquals(List.of("order_line"), result.getLevels().get(2));
+        List<Integer> customers = result.getGeneratedKeys("customer");
+        List<Integer> orders = result.getGeneratedKeys("orders");
+        assertEquals(2, customers.size());
+        Map<String, Object> bob = manager.retrieveTestData("customer", Map.of("id", customers.get(1))).get(0);
+        assertEquals("bob", bob.get("NAME"));
+        assertEquals(customers.get(1),
+                manager.retrieveTestData("orders", Map.of("id", orders.get(0))).get(0).get("CUSTOMER_ID"));
+        assertEquals(2, manager.retrieveTestData("order_line", Map.of("order_id", orders.get(2))).size());
+        assertEquals(List.of(), result.getGeneratedKeys("order_line"));
+    }
+
+    @Test
+    void refToTableOutsideDatasetIsRejected() {
+        Map<String, List<Map<String, Object>>> dataset = Map.of(
+                "orders", List.of(Map.of("customer_id", DependencySeeder.ref("customer", 0))));
+
+        assertThrows(IllegalArgumentException.class, () -> new DependencySeeder(manager, 2).seed(dataset));
+    }
+
+    private void execute(String... statements) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+}
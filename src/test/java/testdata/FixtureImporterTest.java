@@ -0,0 +1,106 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FixtureImporterTest {
+    private TestDataManager manager;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:fixture_importer;DB_CLOSE_DELAY=-1", "sa", "");
+        manager.connect();
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS item");
+            stmt.execute("CREATE TABLE item (id INT PRIMARY KEY, qty INT, price DECIMAL(10, 2), label VARCHAR(20))");
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void jsonLinesNullsLoadIntoNumericColumns() throws IOException, SQLException {
+        Path file = dir.resolve("items.jsonl");
+        Files.writeString(file, String.join("\n",
+                "{\"id\": 1, \"qty\": 5, \"price\": 1.25, \"label\": \"a\"}",
+                "{\"id\": 2, \"qty\": null, \"price\": null, \"label\": null}",
+                "{\"id\": 3, \"label\": \"omitted numbers\"}"), StandardCharsets.UTF_8);
+
+        long imported = new FixtureImporter(manager).importJsonLines("item", file);
+
+        assertEquals(3, imported);
+        Map<String, Object> first = manager.retrieveTestData("item", Map.of("id", 1)).get(0);
+        assertEquals(5, first.get("QTY"));
+        assertEquals(new BigDecimal("1.25"), first.get("PRICE"));
+        Map<String, Object> second = manager.retrieveTestData("item", Map.of("id", 2)).get(0);
+        assertNull(second.get("QTY"));
+        assertNull(second.get("PRICE"));
+        assertNull(second.get("LABEL"));
+        Map<String, Object> third = manager.retrieveTestData("item", Map.of("id", 3)).get(0);
+        assertNull(third.get("QTY"));
+        assertEquals("omitted numbers", third.get("LABEL"));
+    }
+
+    @Test
+    void csvLoadsTypedValues() throws IOException, SQLException {
+        Path file = dir.resolve("items.csv");
+        Files.writeString(file, "id,qty,price,label\n1,7,2.50,\"a, b\"\n2,,,\n", StandardCharsets.UTF_8);
+
+        assertEquals(2, new FixtureImporter(manager).importCsv("item", file));
+
+        Map<String, Object> first = manager.retrieveTestData("item", Map.of("id", 1)).get(0);
+        assertEquals(7, first.get("QTY"));
+        assertEquals(new BigDecimal("2.50"), first.get("PRICE"));
+        assertEquals("a, b", first.get("LABEL"));
+    }
+
+    @Test
+    void jsonNumbersThatDoNotFitAreRejected() throws IOException {
+        Path tooLarge = dir.resolve("large.jsonl");
+        Files.writeString(tooLarge, "{\"id\": 1, \"qty\": 1}\n{\"id\": 2, \"qty\": 3000000000}\n",
+                StandardCharsets.UTF_8);
+        IOException failure = assertThrows(IOException.class,
+                () -> new FixtureImporter(manager).importJsonLines("item", tooLarge));
+        assertTrue(failure.getMessage().contains("Line 2"), failure.getMessage());
+
+        Path fraction = dir.resolve("fraction.jsonl");
+        Files.writeString(fraction, "{\"id\": 1.5, \"qty\": 1}\n", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> new FixtureImporter(manager).importJsonLines("item", fraction));
+    }
+
+    @Test
+    void emptyCsvHeaderFieldIsRejected() throws IOException {
+        Path file = dir.resolve("header.csv");
+        Files.writeString(file, "id,,label\n1,2,x\n", StandardCharsets.UTF_8);
+
+        SQLException failure = assertThrows(SQLException.class,
+                () -> new FixtureImporter(manager).importCsv("item", file));
+        assertTrue(failure.getMessage().contains("Header field 2"), failure.getMessage());
+    }
+}
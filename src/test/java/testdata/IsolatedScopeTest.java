@@ -0,0 +1,144 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IsolatedScopeTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:isolated_scope;DB_CLOSE_DELAY=-1", "sa", "",
+                new ConnectionPool.Config().minSize(1).maxSize(4));
+        manager.connect();
+        execute("DROP TABLE IF EXISTS item", "DROP TABLE IF EXISTS category",
+                "CREATE TABLE category (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(20))",
+                "CREATE TABLE item (id INT AUTO_INCREMENT PRIMARY KEY, n INT,"
+                        + " category_id INT REFERENCES category (id))");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void scopeRollsBackWritesAndSavepoints() throws SQLException {
+        execute("INSERT INTO category (name) VALUES ('kept')");
+
+        try (IsolatedScope scope = manager.beginIsolatedScope()) {
+            scope.insertTestData("category", Map.of("name", "scoped"));
+            Savepoint savepoint = scope.savepoint("before_update");
+            scope.updateTestData("category", Map.of("name", "renamed"), Map.of("name", "kept"));
+            scope.rollbackTo(savepoint);
+            assertEquals(1, scope.retrieveTestData("category", Map.of("name", "kept")).size());
+            assertEquals(1, scope.deleteTestData("category", Map.of("name", "kept")));
+            assertEquals(1, count("SELECT COUNT(*) FROM category"));
+        }
+
+        assertEquals(1, count("SELECT COUNT(*) FROM category WHERE name = 'kept'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM category"));
+    }
+
+    @Test
+    void parallelLoadInsideScopeIsRolledBack() throws SQLException {
+        Map<String, List<Map<String, Object>>> dataset = new LinkedHashMap<>();
+        dataset.put("item", rows(2000));
+        dataset.put("category", List.of(Map.of("name", "a"), Map.of("name", "b")));
+
+        try (IsolatedScope scope = manager.beginIsolatedScope()) {
+            assertEquals(2002, new ParallelLoader(manager, 4).load(dataset).getTotalRows());
+            assertEquals(2000, count("SELECT COUNT(*) FROM item"));
+        }
+
+        assertEquals(0, count("SELECT COUNT(*) FROM item"));
+        assertEquals(0, count("SELECT COUNT(*) FROM category"));
+    }
+
+    @Test
+    void seedingGenerationAndTeardownInsideScopeAreRolledBack() throws SQLException {
+        execute("INSERT INTO category (name) VALUES ('kept')",
+                "INSERT INTO item (n) SELECT X FROM SYSTEM_RANGE(1, 50)");
+        Map<String, List<Map<String, Object>>> dataset = new LinkedHashMap<>();
+        dataset.put("item", List.of(Map.of("n", 1, "category_id", DependencySeeder.ref("category", 0))));
+        dataset.put("category", List.of(Map.of("name", "seeded")));
+
+        try (IsolatedScope scope = manager.beginIsolatedScope()) {
+            new DependencySeeder(manager, 4).seed(dataset);
+            new DataGenerator(manager, "item", 3).exclude("category_id").generate(1000, 4);
+            assertEquals(1051, count("SELECT COUNT(*) FROM item"));
+
+            TeardownEngine teardown = new TeardownEngine(manager, 4);
+            teardown.setChunkSize(10);
+            Map<String, Long> deleted = teardown.teardown(List.of("item", "category"));
+            assertEquals(1051L, deleted.get("item"));
+            assertEquals(0, count("SELECT COUNT(*) FROM category"));
+        }
+
+        assertEquals(50, count("SELECT COUNT(*) FROM item"));
+        assertEquals(1, count("SELECT COUNT(*) FROM category"));
+    }
+
+    @Test
+    void scopeIsConfinedToItsThread() throws Exception {
+        try (IsolatedScope scope = manager.beginIsolatedScope()) {
+            ExecutorService other = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> insert = other.submit(() -> scope.insertTestData("category", Map.of("name", "x")));
+                ExecutionException e = assertThrows(ExecutionException.class, insert::get);
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            } finally {
+                other.shutdown();
+            }
+            assertThrows(IllegalStateException.class, () -> manager.beginIsolatedScope());
+        }
+    }
+
+    private static List<Map<String, Object>> rows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(Map.of("n", i));
+        }
+        return rows;
+    }
+
+    private long count(String sql) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    private void execute(String... statements) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class KeyLookupTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:key_lookup;DB_CLOSE_DELAY=-1", "sa", "");
+        manager.connect();
+        execute("DROP TABLE IF EXISTS keyed",
+                "CREATE TABLE keyed (id INT PRIMARY KEY, name VARCHAR(20))",
+                "INSERT INTO keyed SELECT X, 'row ' || X FROM SYSTEM_RANGE(1, 5000)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void retrievesSmallAndLargeKeySets() throws SQLException {
+        assertEquals(3, manager.retrieveByKeys("keyed", "id", List.of(1, 2, 3, 3, 9999)).size());
+
+        List<Integer> keys = new ArrayList<>();
+        for (int i = 1; i <= 3000; i++) {
+            keys.add(i * 2);
+        }
+        keys.add(2);
+        keys.add(99_999);
+        ResultTable rows = manager.retrieveByKeys("keyed", "id", keys);
+
+        assertEquals(2500, rows.size());
+        Set<Object> ids = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ids.add(rows.getValue(i, "ID"));
+        }
+        assertEquals(2500, ids.size());
+        assertEquals("row 4", manager.retrieveByKeys("keyed", "id", List.of(4)).getValue(0, "NAME"));
+    }
+
+    @Test
+    void largeDeleteInsideScopeIsRolledBack() throws SQLException {
+        try (IsolatedScope scope = manager.beginIsolatedScope()) {
+            scope.insertTestData("keyed", Map.of("id", 10_001, "name", "scoped"));
+            assertEquals(2500, manager.deleteByKeys("keyed", "id", range(1, 2500)));
+            assertEquals(2500, manager.retrieveByKeys("keyed", "id", range(1, 5000)).size());
+        }
+
+        assertEquals(5000, count("SELECT COUNT(*) FROM keyed"));
+        assertEquals(0, count("SELECT COUNT(*) FROM keyed WHERE id = 10001"));
+    }
+
+    @Test
+    void largeDeleteOutsideScopeCommits() throws SQLException {
+        assertEquals(2000, manager.deleteByKeys("keyed", "id", range(1, 2000)));
+        assertEquals(3000, count("SELECT COUNT(*) FROM keyed"));
+    }
+
+    @Test
+    void leftoverTempTableIsDroppedOnlyIfTemporary() {
+        assertEquals("IF OBJECT_ID('tempdb..#tdm_keys') IS NOT NULL DROP TABLE #tdm_keys",
+                KeyLookup.dropSql(SqlDialect.SQLSERVER, "#tdm_keys"));
+        assertEquals("DROP TEMPORARY TABLE IF EXISTS tdm_keys", KeyLookup.dropSql(SqlDialect.MYSQL, "tdm_keys"));
+        assertEquals("DROP TABLE IF EXISTS temp.tdm_keys", KeyLookup.dropSql(SqlDialect.SQLITE, "tdm_keys"));
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> keys = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            keys.add(i);
+        }
+        return keys;
+    }
+
+    private long count(String sql) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    private void execute(String... statements) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class KeysetPageIteratorTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:keyset_pages;DB_CLOSE_DELAY=-1", "sa", "",
+                new ConnectionPool.Config().minSize(1).maxSize(2));
+        manager.connect();
+        execute("DROP TABLE IF EXISTS entry",
+                "CREATE TABLE entry (id INT PRIMARY KEY, grp INT, score INT)",
+                // Keys inserted out of order with gaps; score is the same for runs of ten rows
+                "INSERT INTO entry SELECT 1001 - X * 2, MOD(X, 2), X / 10 FROM SYSTEM_RANGE(1, 500)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void pagesCoverEveryMatchingRowOnceInKeyOrder() {
+        List<Integer> ids = new ArrayList<>();
+        try (KeysetPageIterator pages = manager.retrievePages("entry", Map.of("grp", 1), "id", 40)) {
+            while (pages.hasNext()) {
+                ResultTable page = pages.next();
+                for (int i = 0; i < page.size(); i++) {
+                    ids.add((Integer) page.getValue(i, "ID"));
+                }
+            }
+            // 250 rows in pages of 40: six full pages and one of ten
+            assertEquals(7, pages.getPagesRead());
+            assertThrows(NoSuchElementException.class, pages::next);
+        }
+
+        assertEquals(250, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            // grp = 1 holds the odd X, so ids run 3, 7, 11, ...
+            assertEquals(3 + i * 4, ids.get(i));
+        }
+    }
+
+    @Test
+    void tiedValuesAcrossPageBoundariesAreNeitherSkippedNorRepeated() {
+        // Every page boundary falls inside a run of equal scores; seeking on the unique key keeps them all
+        List<Integer> scores = new ArrayList<>();
+        long rows = 0;
+        try (KeysetPageIterator pages = manager.retrievePages("entry", Map.of(), "id", 7)) {
+            while (pages.hasNext()) {
+                ResultTable page = pages.next();
+                rows += page.size();
+                for (int i = 0; i < page.size(); i++) {
+                    scores.add((Integer) page.getValue(i, "SCORE"));
+                }
+            }
+        }
+
+        assertEquals(500, rows);
+        for (int score = 0; score <= 50; score++) {
+            int expected = score == 0 ? 9 : score == 50 ? 1 : 10;
+            int s = score;
+            assertEquals(expected, scores.stream().filter(v -> v == s).count(), "score " + score);
+        }
+    }
+
+    @Test
+    void exactMultipleOfPageSizeEndsWithAnEmptyRead() {
+        try (KeysetPageIterator pages = manager.retrievePages("entry", Map.of(), "id", 100)) {
+            int count = 0;
+            while (pages.hasNext()) {
+                assertEquals(100, pages.next().size());
+                count++;
+            }
+            assertEquals(5, count);
+            assertEquals(6, pages.getPagesRead());
+            assertFalse(pages.hasNext());
+        }
+    }
+
+    @Test
+    void pagesInsideScopeSeeUncommittedRows() throws SQLException {
+        try (IsolatedScope scope = manager.beginIsolatedScope()) {
+            scope.insertTestData("entry", Map.of("id", 2000, "grp", 7, "score", 0));
+            try (KeysetPageIterator pages = manager.retrievePages("entry", Map.of("grp", 7), "id", 10)) {
+                assertEquals(2000, pages.next().getValue(0, "ID"));
+                assertFalse(pages.hasNext());
+            }
+        }
+    }
+
+    private void execute(String... statements) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+}
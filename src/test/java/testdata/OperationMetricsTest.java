@@ -0,0 +1,95 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OperationMetricsTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:operation_metrics;DB_CLOSE_DELAY=-1", "sa", "");
+        manager.connect();
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS tag");
+            stmt.execute("CREATE TABLE tag (id INT PRIMARY KEY, name VARCHAR(20))");
+        } finally {
+            manager.releaseConnection(conn);
+        }
+        manager.getMetrics().reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void callsRowsAndErrorsAreCountedPerOperationAndTable() throws SQLException {
+        manager.insertTestData("tag", Map.of("id", 1, "name", "a"));
+        manager.insertTestData("tag", Map.of("id", 2, "name", "a"));
+        assertThrows(SQLException.class, () -> manager.insertTestData("tag", Map.of("id", 1, "name", "b")));
+        manager.retrieveTestData("tag", Map.of("name", "a"));
+
+        OperationMetrics metrics = manager.getMetrics();
+        OperationMetrics.Stats inserts = metrics.get("INSERT", "tag");
+        assertEquals(3, inserts.getCalls());
+        assertEquals(2, inserts.getRows());
+        assertEquals(1, inserts.getErrors());
+        assertTrue(inserts.getMaxMillis() >= inserts.getP50Millis());
+        assertEquals(2, metrics.get("SELECT", "tag").getRows());
+        assertNull(metrics.get("DELETE", "tag"));
+        assertEquals(4, metrics.getTotalCalls());
+        assertEquals(1, metrics.getTotalErrors());
+
+        List<OperationMetrics.Stats> snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.size());
+        assertTrue(snapshot.get(0).getTotalNanos() >= snapshot.get(1).getTotalNanos());
+    }
+
+    @Test
+    void histogramPercentilesStayWithinBucketResolution() {
+        OperationMetrics.LatencyHistogram histogram = new OperationMetrics.LatencyHistogram();
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+        long[] counts = histogram.counts();
+
+        assertEquals(500_000, OperationMetrics.LatencyHistogram.percentile(counts, 0.5), 500_000 * 0.04);
+        assertEquals(990_000, OperationMetrics.LatencyHistogram.percentile(counts, 0.99), 990_000 * 0.04);
+        assertEquals(0, OperationMetrics.LatencyHistogram.percentile(new long[counts.length], 0.5));
+        // Values below 32 are exact
+        assertEquals(17, OperationMetrics.LatencyHistogram.valueAt(OperationMetrics.LatencyHistogram.index(17)));
+    }
+
+    @Test
+    void metricsRegisterAsMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = manager.getMetrics().registerMBean("operation_metrics_test");
+        try {
+            assertTrue(server.isRegistered(name));
+            assertEquals(0L, server.getAttribute(name, "TotalCalls"));
+        } finally {
+            manager.getMetrics().unregisterMBean();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+}
@@ -0,0 +1,46 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OperationTraceTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void eventIsOnlyCreatedWhileRecording() throws IOException {
+        assertNull(new OperationTrace("INSERT", "tag").event);
+
+        Path file = dir.resolve("trace.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("testdata.DatabaseOperation").withThreshold(Duration.ZERO);
+            recording.start();
+            OperationTrace trace = new OperationTrace("INSERT", "tag", 2);
+            assertNotNull(trace.event);
+            trace.succeeded(1);
+            trace.commitEvent(trace.elapsedNanos());
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("testdata.DatabaseOperation"))
+                .collect(Collectors.toList());
+        assertEquals(1, events.size());
+        assertEquals("tag", events.get(0).getString("table"));
+        assertEquals(1, events.get(0).getLong("rowCount"));
+    }
+}
@@ -0,0 +1,100 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelLoaderTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:parallel_loader;DB_CLOSE_DELAY=-1", "sa", "",
+                new ConnectionPool.Config().minSize(1).maxSize(3));
+        manager.connect();
+        execute("DROP TABLE IF EXISTS t1", "DROP TABLE IF EXISTS t2", "DROP TABLE IF EXISTS t3",
+                "CREATE TABLE t1 (id INT AUTO_INCREMENT PRIMARY KEY, n INT)",
+                "CREATE TABLE t2 (id INT AUTO_INCREMENT PRIMARY KEY, n INT)",
+                "CREATE TABLE t3 (id INT AUTO_INCREMENT PRIMARY KEY, n INT UNIQUE)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void tablesLoadInParallelKeepingRowOrder() throws SQLException {
+        Map<String, List<Map<String, Object>>> dataset = new LinkedHashMap<>();
+        dataset.put("t1", rows(3000));
+        dataset.put("t2", rows(1500));
+        dataset.put("t3", rows(10));
+
+        ParallelLoader.LoadReport report = new ParallelLoader(manager, 8).load(dataset);
+
+        assertEquals(4510, report.getTotalRows());
+        assertEquals(3, report.getWorkers().size());
+        Set<String> loaded = new HashSet<>();
+        for (ParallelLoader.WorkerStats worker : report.getWorkers()) {
+            loaded.addAll(worker.getTables());
+        }
+        assertEquals(Set.of("t1", "t2", "t3"), loaded);
+        // Each table is written by one worker in input order, so ids follow n
+        assertEquals(0, count("SELECT COUNT(*) FROM t1 WHERE id <> n + 1"));
+        assertEquals(1500, count("SELECT COUNT(*) FROM t2"));
+    }
+
+    @Test
+    void failingTableFailsTheLoad() {
+        Map<String, List<Map<String, Object>>> dataset = new LinkedHashMap<>();
+        List<Map<String, Object>> duplicates = rows(5);
+        duplicates.add(Map.of("n", 0));
+        dataset.put("t3", duplicates);
+        dataset.put("t1", rows(100));
+
+        assertThrows(SQLException.class, () -> new ParallelLoader(manager, 2).load(dataset));
+    }
+
+    private static List<Map<String, Object>> rows(int count) {
+        List<Map<String, Object>> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(Map.of("n", i));
+        }
+        return rows;
+    }
+
+    private long count(String sql) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    private void execute(String... statements) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+}
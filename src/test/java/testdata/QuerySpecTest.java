@@ -0,0 +1,89 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QuerySpecTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:query_spec;DB_CLOSE_DELAY=-1", "sa", "");
+        manager.connect();
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS orders");
+            stmt.execute("CREATE TABLE orders (id INT PRIMARY KEY, status VARCHAR(10), total INT)");
+            stmt.execute("INSERT INTO orders SELECT X, CASEWHEN(MOD(X, 3) = 0, 'PAID', 'NEW'),"
+                    + " CASEWHEN(MOD(X, 5) = 0, NULL, X * 10) FROM SYSTEM_RANGE(1, 30)");
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void inListsArePaddedToPowerOfTwoBuckets() {
+        assertEquals(Arrays.asList(1, 2, 4, 4, 8, 8, 16), Arrays.asList(QuerySpec.inListBucket(1),
+                QuerySpec.inListBucket(2), QuerySpec.inListBucket(3), QuerySpec.inListBucket(4),
+                QuerySpec.inListBucket(5), QuerySpec.inListBucket(8), QuerySpec.inListBucket(9)));
+
+        QuerySpec five = QuerySpec.from("orders").whereIn("id", List.of(1, 2, 3, 4, 5)).limit(10);
+        QuerySpec seven = QuerySpec.from("orders").whereIn("id", List.of(1, 2, 3, 4, 5, 6, 7)).limit(3);
+        assertEquals(five.shape(SqlDialect.H2), seven.shape(SqlDialect.H2));
+        assertNotEquals(five.shape(SqlDialect.H2),
+                QuerySpec.from("orders").whereIn("id", List.of(1, 2, 3)).limit(10).shape(SqlDialect.H2));
+        assertEquals("SELECT * FROM orders WHERE id IN (?, ?, ?, ?, ?, ?, ?, ?) LIMIT ?",
+                five.toSql(SqlDialect.H2));
+        assertEquals(List.of(1, 2, 3, 4, 5, 5, 5, 5, 10), five.parameters(SqlDialect.H2));
+    }
+
+    @Test
+    void limitIsBoundOrLeftToSetMaxRows() {
+        QuerySpec spec = QuerySpec.from("orders").select("id").orderBy("id").limit(5);
+
+        assertEquals("SELECT id FROM orders ORDER BY id LIMIT ?", spec.toSql(SqlDialect.POSTGRESQL));
+        assertEquals("SELECT id FROM orders ORDER BY id FETCH FIRST ? ROWS ONLY", spec.toSql(SqlDialect.ORACLE));
+        assertEquals("SELECT id FROM orders ORDER BY id", spec.toSql(SqlDialect.SQLSERVER));
+        assertEquals(List.of(), spec.parameters(SqlDialect.SQLSERVER));
+        assertThrows(IllegalArgumentException.class, () -> QuerySpec.from("orders").limit(0));
+        assertThrows(IllegalArgumentException.class, () -> QuerySpec.from("orders").limit(-1));
+    }
+
+    @Test
+    void queryAppliesPredicatesOrderAndLimit() throws SQLException {
+        ResultTable rows = manager.query(QuerySpec.from("orders")
+                .select("id", "total")
+                .whereEquals("status", "PAID")
+                .whereNotNull("total")
+                .where("id", QuerySpec.Op.GT, 3)
+                .orderByDescending("id")
+                .limit(3));
+
+        assertEquals(List.of("ID", "TOTAL"), rows.getColumns());
+        assertEquals(3, rows.size());
+        // PAID ids over 3 with a total, highest first: 27, 24, 21 (30 has no total)
+        assertEquals(27, rows.getValue(0, "ID"));
+        assertEquals(21, rows.getValue(2, "ID"));
+
+        assertEquals(3, manager.query(QuerySpec.from("orders").whereIn("id", List.of(2, 4, 6))).size());
+        assertEquals(0, manager.query(QuerySpec.from("orders").whereIn("id", List.of())).size());
+        assertEquals(6, manager.query(QuerySpec.from("orders").whereNull("total")).size());
+        assertEquals(11, manager.query(QuerySpec.from("orders").whereBetween("id", 10, 20)).size());
+    }
+}
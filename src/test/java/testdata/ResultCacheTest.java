@@ -0,0 +1,108 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResultCacheTest {
+    private TestDataManager manager;
+    private ResultCache cache;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:result_cache;DB_CLOSE_DELAY=-1", "sa", "");
+        manager.connect();
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS country");
+            stmt.execute("CREATE TABLE country (id INT AUTO_INCREMENT PRIMARY KEY, code VARCHAR(2),"
+                    + " name VARCHAR(20), updated TIMESTAMP, flag VARBINARY(4))");
+            stmt.execute("INSERT INTO country (code, name, updated, flag) VALUES"
+                    + " ('NL', 'Netherlands', TIMESTAMP '2024-01-01 10:00:00', X'01'),"
+                    + " ('BE', 'Belgium', TIMESTAMP '2024-01-01 10:00:00', X'02')");
+        } finally {
+            manager.releaseConnection(conn);
+        }
+        cache = new ResultCache(1000, 0, TimeUnit.SECONDS);
+        manager.setResultCache(cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void repeatedReadIsServedFromCacheUntilTheTableIsWritten() throws SQLException {
+        Map<String, Object> nl = Map.of("code", "NL");
+        assertEquals("Netherlands", manager.retrieveTestData("country", nl).get(0).get("NAME"));
+        assertEquals("Netherlands", manager.retrieveTestDataCompact("country", nl).getValue(0, "NAME"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        manager.updateTestData("country", Map.of("name", "Holland"), nl);
+        assertEquals("Holland", manager.retrieveTestData("country", nl).get(0).get("NAME"));
+        manager.deleteTestData("country", nl);
+        assertEquals(List.of(), manager.retrieveTestData("country", nl));
+        manager.insertTestDataBatch("country", List.of(Map.of("code", "NL", "name", "Nederland")));
+        assertEquals("Nederland", manager.retrieveTestData("COUNTRY", nl).get(0).get("NAME"));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getInvalidations());
+    }
+
+    @Test
+    void callersCannotChangeCachedValues() throws SQLException {
+        Map<String, Object> be = Map.of("code", "BE");
+        ResultTable first = manager.retrieveTestDataCompact("country", be);
+        ((Timestamp) first.getValue(0, "UPDATED")).setTime(0);
+        ((byte[]) first.getValue(0, "FLAG"))[0] = 9;
+        first.getRowValues(0)[2] = "changed";
+        Map<String, Object> row = manager.retrieveTestData("country", be).get(0);
+        ((Timestamp) row.get("UPDATED")).setNanos(5);
+
+        ResultTable again = manager.retrieveTestDataCompact("country", be);
+        assertEquals(2, cache.getHits());
+        assertEquals("Belgium", again.getValue(0, "NAME"));
+        assertEquals(Timestamp.valueOf("2024-01-01 10:00:00"), again.getValue(0, "UPDATED"));
+        assertArrayEquals(new byte[] {2}, (byte[]) again.getValue(0, "FLAG"));
+    }
+
+    @Test
+    void arrayConditionsAndScopedReadsBypassTheCache() throws SQLException {
+        manager.retrieveTestData("country", Map.of("flag", new byte[] {1}));
+        manager.retrieveTestData("country", Map.of("flag", new byte[] {1}));
+        assertEquals(0, cache.getHits() + cache.getMisses());
+
+        try (IsolatedScope scope = manager.beginIsolatedScope()) {
+            scope.insertTestData("country", Map.of("code", "DE", "name", "Germany"));
+            assertEquals(1, scope.retrieveTestData("country", Map.of("code", "DE")).size());
+        }
+        assertEquals(List.of(), manager.retrieveTestData("country", Map.of("code", "DE")));
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedByWeight() throws SQLException {
+        manager.setResultCache(cache = new ResultCache(10, 0, TimeUnit.SECONDS));
+        // Each single-row result weighs five cells
+        manager.retrieveTestData("country", Map.of("code", "NL"));
+        manager.retrieveTestData("country", Map.of("code", "BE"));
+        manager.retrieveTestData("country", Map.of("code", "NL"));
+        manager.retrieveTestData("country", Map.of("name", "Belgium"));
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(10, cache.getWeight());
+        manager.retrieveTestData("country", Map.of("code", "NL"));
+        assertEquals(2, cache.getHits());
+    }
+}
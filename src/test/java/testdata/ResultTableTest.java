@@ -0,0 +1,71 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResultTableTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:result_table;DB_CLOSE_DELAY=-1", "sa", "");
+        manager.connect();
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS product");
+            stmt.execute("CREATE TABLE product (id INT PRIMARY KEY, name VARCHAR(20), price INT)");
+            stmt.execute("INSERT INTO product VALUES (1, 'a', 10), (2, 'b', NULL), (3, 'a', 30)");
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void compactRowsReadByNameAndPosition() throws SQLException {
+        ResultTable table = manager.retrieveTestDataCompact("product", Map.of("name", "a"));
+
+        assertEquals(2, table.size());
+        assertEquals(List.of("ID", "NAME", "PRICE"), table.getColumns());
+        assertEquals(2, table.indexOf("PRICE"));
+        assertEquals(-1, table.indexOf("MISSING"));
+        int first = (Integer) table.getValue(0, "ID") == 1 ? 0 : 1;
+        assertEquals(10, table.getValue(first, 2));
+        assertEquals("a", table.get(first).get("NAME"));
+        assertThrows(IllegalArgumentException.class, () -> table.getValue(0, "MISSING"));
+    }
+
+    @Test
+    void rowViewsAreReadOnlyAndToMapsCopies() {
+        ResultTable table = new ResultTable(new String[] {"ID", "NAME"},
+                Arrays.asList(new Object[] {1, "x"}, new Object[] {2, null}));
+
+        Map<String, Object> view = table.get(1);
+        assertTrue(view.containsKey("NAME"));
+        assertNull(view.get("NAME"));
+        assertEquals(2, view.size());
+        assertThrows(UnsupportedOperationException.class, () -> view.put("NAME", "y"));
+
+        List<Map<String, Object>> maps = table.toMaps();
+        maps.get(0).put("NAME", "changed");
+        assertEquals("x", table.getValue(0, "NAME"));
+        assertEquals(Map.of("ID", 1, "NAME", "x"), table.get(0));
+    }
+}
@@ -0,0 +1,84 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SlowStatementLogTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:slow_statement_log;DB_CLOSE_DELAY=-1", "sa", "");
+        manager.connect();
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS note");
+            stmt.execute("CREATE TABLE note (id INT PRIMARY KEY, body VARCHAR(20))");
+            stmt.execute("INSERT INTO note VALUES (1, 'a'), (2, 'b'), (3, 'c')");
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void variantsShareOneFingerprint() {
+        String fingerprint = SlowStatementLog.fingerprint("SELECT * FROM t WHERE id IN (1, 2, 3) AND name = 'x'");
+
+        assertEquals("select*from t where id in(?+)and name=?", fingerprint);
+        assertEquals(fingerprint, SlowStatementLog.fingerprint("select * from T where ID in (?,?) and NAME=?"));
+        assertEquals(SlowStatementLog.fingerprint("INSERT INTO t (a, b) VALUES (?, ?)"),
+                SlowStatementLog.fingerprint("INSERT INTO t (a, b) VALUES (1, 'x'), (2, 'y'), (3, 'z')"));
+    }
+
+    @Test
+    void statementsOverThresholdAreAggregated() throws SQLException {
+        try (SlowStatementLog slow = new SlowStatementLog(0, TimeUnit.MILLISECONDS)) {
+            manager.setSlowStatementLog(slow);
+            manager.retrieveTestData("note", Map.of("id", 1));
+            manager.retrieveTestData("note", Map.of("id", 2));
+
+            List<SlowStatementLog.Entry> top = slow.top(10);
+            assertEquals(1, top.size());
+            assertEquals(2, top.get(0).getCount());
+            assertTrue(top.get(0).getFingerprint().startsWith("select*from note"));
+        }
+    }
+
+    @Test
+    void slowStreamConsumerIsNotReportedAsSlowStatement() throws Exception {
+        try (SlowStatementLog slow = new SlowStatementLog(200, TimeUnit.MILLISECONDS)) {
+            manager.setSlowStatementLog(slow);
+            try (Stream<Map<String, Object>> rows = manager.streamTestData("note", Map.of(), 1)) {
+                rows.forEach(row -> pause(100));
+            }
+
+            assertEquals(List.of(), slow.top(10));
+            assertTrue(manager.getMetrics().get("STREAM", "note").getMaxMillis() >= 300);
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
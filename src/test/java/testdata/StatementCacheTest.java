@@ -0,0 +1,142 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StatementCacheTest {
+    private static final String URL = "jdbc:h2:mem:statement_cache;DB_CLOSE_DELAY=-1";
+
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection(URL, "sa", "");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void idleStatementIsReused() throws SQLException {
+        StatementCache cache = new StatementCache(16, 4);
+        StatementCache.Key key = key("a");
+
+        PreparedStatement first;
+        try (StatementCache.Lease lease = cache.prepare(conn, key, "SELECT 1", false)) {
+            first = lease.statement();
+            // A second lease of the same shape while the first is open gets its own statement
+            try (StatementCache.Lease nested = cache.prepare(conn, key, "SELECT 1", false)) {
+                assertNotSame(first, nested.statement());
+            }
+        }
+        try (StatementCache.Lease lease = cache.prepare(conn, key, "SELECT 1", false)) {
+            assertSame(first, lease.statement());
+        }
+
+        assertEquals(1, cache.getStatementHits());
+        assertEquals(2, cache.getStatementMisses());
+        assertFalse(first.isClosed());
+    }
+
+    @Test
+    void leastRecentlyUsedStatementIsEvicted() throws SQLException {
+        StatementCache cache = new StatementCache(16, 2);
+        PreparedStatement a = leaseAndReturn(cache, "a");
+        PreparedStatement b = leaseAndReturn(cache, "b");
+        assertSame(a, leaseAndReturn(cache, "a"));
+
+        leaseAndReturn(cache, "c");
+
+        assertTrue(b.isClosed());
+        assertFalse(a.isClosed());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void statementEvictedWhileLeasedClosesOnReturn() throws SQLException {
+        StatementCache cache = new StatementCache(16, 1);
+        StatementCache.Lease lease = cache.prepare(conn, key("a"), "SELECT 1", false);
+        leaseAndReturn(cache, "b");
+        assertFalse(lease.statement().isClosed());
+
+        lease.close();
+
+        assertTrue(lease.statement().isClosed());
+    }
+
+    @Test
+    void evictConnectionClosesItsStatements() throws SQLException {
+        StatementCache cache = new StatementCache(16, 4);
+        PreparedStatement a = leaseAndReturn(cache, "a");
+
+        cache.evictConnection(conn);
+
+        assertTrue(a.isClosed());
+        assertNotSame(a, leaseAndReturn(cache, "a"));
+    }
+
+    @Test
+    void sqlTextIsBuiltOncePerShape() {
+        StatementCache cache = new StatementCache(2, 0);
+        int[] builds = new int[1];
+        for (int i = 0; i < 3; i++) {
+            cache.sql(key("a"), () -> {
+                builds[0]++;
+                return "SELECT 1";
+            });
+        }
+        assertEquals(1, builds[0]);
+        assertEquals(2, cache.getSqlHits());
+
+        cache.sql(key("b"), () -> "SELECT 2");
+        cache.sql(key("c"), () -> "SELECT 3");
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void managerReusesStatementsAcrossCalls() throws SQLException {
+        TestDataManager manager = new TestDataManager(URL, "sa", "");
+        manager.connect();
+        try {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("DROP TABLE IF EXISTS cached");
+                stmt.execute("CREATE TABLE cached (id INT PRIMARY KEY, v INT)");
+            }
+            for (int i = 0; i < 5; i++) {
+                manager.insertTestData("cached", Map.of("id", i, "v", i));
+            }
+            StatementCache cache = manager.getStatementCache();
+            assertTrue(cache.getStatementHits() >= 4);
+            assertTrue(cache.getSqlHits() >= 4);
+        } finally {
+            manager.disconnect();
+        }
+    }
+
+    private PreparedStatement leaseAndReturn(StatementCache cache, String table) throws SQLException {
+        try (StatementCache.Lease lease = cache.prepare(conn, key(table), "SELECT 1", false)) {
+            return lease.statement();
+        }
+    }
+
+    private static StatementCache.Key key(String table) {
+        return new StatementCache.Key("SELECT", table, List.of("x"), List.of());
+    }
+}
@@ -0,0 +1,85 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TeardownEngineTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:teardown_engine;DB_CLOSE_DELAY=-1", "sa", "",
+                new ConnectionPool.Config().minSize(1).maxSize(3));
+        manager.connect();
+        execute("DROP TABLE IF EXISTS review", "DROP TABLE IF EXISTS book", "DROP TABLE IF EXISTS author",
+                "CREATE TABLE author (id INT PRIMARY KEY, name VARCHAR(20))",
+                "CREATE TABLE book (id INT PRIMARY KEY, author_id INT REFERENCES author (id),"
+                        + " sequel_of INT REFERENCES book (id))",
+                "CREATE TABLE review (id INT PRIMARY KEY, book_id INT REFERENCES book (id))",
+                "INSERT INTO author SELECT X, 'a' || X FROM SYSTEM_RANGE(1, 95)",
+                "INSERT INTO book SELECT X, MOD(X, 95) + 1, NULL FROM SYSTEM_RANGE(1, 200)",
+                "UPDATE book SET sequel_of = id - 1 WHERE id > 1",
+                "INSERT INTO review SELECT X, MOD(X, 200) + 1 FROM SYSTEM_RANGE(1, 500)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void tablesAreClearedChildrenFirst() throws SQLException {
+        TeardownEngine engine = new TeardownEngine(manager, 3);
+        engine.setChunkSize(10);
+
+        Map<String, Long> deleted = engine.teardown(List.of("author", "book", "review"));
+
+        assertEquals(List.of("review", "book", "author"), List.copyOf(deleted.keySet()));
+        // Nothing references review, so it is truncated
+        assertEquals(TeardownEngine.TRUNCATED, deleted.get("review"));
+        // book references itself and is deleted in one statement; author goes in key ranges of 10
+        assertEquals(200, deleted.get("book"));
+        assertEquals(95, deleted.get("author"));
+        assertEquals(0, count("SELECT (SELECT COUNT(*) FROM author) + (SELECT COUNT(*) FROM book)"
+                + " + (SELECT COUNT(*) FROM review)"));
+    }
+
+    @Test
+    void truncateCanBeDisabled() throws SQLException {
+        TeardownEngine engine = new TeardownEngine(manager, 1);
+        engine.setTruncateAllowed(false);
+
+        assertEquals(500, engine.teardown(List.of("review")).get("review"));
+    }
+
+    private long count(String sql) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    private void execute(String... statements) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package testdata;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TestDataManagerTest {
+    private TestDataManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new TestDataManager("jdbc:h2:mem:test_data_manager;DB_CLOSE_DELAY=-1", "sa", "",
+                new ConnectionPool.Config().minSize(1).maxSize(1).maxWaitMillis(1000));
+        manager.connect();
+        execute("DROP TABLE IF EXISTS person",
+                "CREATE TABLE person (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50) NOT NULL,"
+                        + " age INT, email VARCHAR(50) UNIQUE)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.disconnect();
+    }
+
+    @Test
+    void batchInsertReturnsKeysInInputOrder() throws SQLException {
+        manager.setBatchSize(100);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            // Two column sets, interleaved, so the rows go through two statements
+            rows.add(i % 2 == 0 ? Map.of("name", "p" + i, "age", i) : Map.of("name", "p" + i));
+        }
+
+        List<Integer> keys = manager.insertTestDataBatch("person", rows);
+
+        assertEquals(250, keys.size());
+        assertEquals(250, count("SELECT COUNT(*) FROM person"));
+        for (int i : new int[] {0, 1, 124, 249}) {
+            Map<String, Object> row = manager.retrieveTestData("person", Map.of("id", keys.get(i))).get(0);
+            assertEquals("p" + i, row.get("NAME"));
+        }
+    }
+
+    @Test
+    void failedBatchKeepsEarlierChunksAndReleasesConnection() throws SQLException {
+        manager.setBatchSize(10);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            rows.add(Map.of("name", "p" + i, "email", i == 15 ? "p0@x" : "p" + i + "@x"));
+        }
+
+        assertThrows(SQLException.class, () -> manager.insertTestDataBatch("person", rows));
+
+        // The first chunk was committed; the pool's only connection was handed back
+        assertEquals(10, count("SELECT COUNT(*) FROM person"));
+    }
+
+    @Test
+    void streamReadsRowsLazilyAndReleasesConnectionOnClose() throws SQLException {
+        execute("INSERT INTO person (name, age) SELECT 'p' || X, MOD(X, 3) FROM SYSTEM_RANGE(1, 2000)");
+
+        try (Stream<Map<String, Object>> rows = manager.streamTestData("person", Map.of("age", 1), 50)) {
+            assertEquals(667, rows.count());
+        }
+        try (Stream<Map<String, Object>> rows = manager.streamTestData("person", Map.of(), 50)) {
+            // Closing a partly read stream ends the cursor early
+            assertEquals(10, rows.limit(10).count());
+        }
+
+        // The pool has one connection, so this would time out if a stream still held it
+        assertEquals(2000, count("SELECT COUNT(*) FROM person"));
+    }
+
+    @Test
+    void batchUpdateAndDeleteReturnCountsInInputOrder() throws SQLException {
+        execute("INSERT INTO person (name, age) SELECT 'p' || X, MOD(X, 4) FROM SYSTEM_RANGE(1, 40)");
+        manager.setBatchSize(2);
+
+        int[] updated = manager.updateTestDataBatch("person", List.of(
+                new RowUpdate(Map.of("age", 10), Map.of("age", 0)),
+                new RowUpdate(Map.of("email", "p1@x"), Map.of("name", "p1")),
+                new RowUpdate(Map.of("age", 11), Map.of("age", 99)),
+                new RowUpdate(Map.of("email", "p2@x"), Map.of("name", "p2")),
+                new RowUpdate(Map.of("age", 12), Map.of("age", 1))));
+
+        assertArrayEquals(new int[] {10, 1, 0, 1, 10}, updated);
+        assertEquals(10, count("SELECT COUNT(*) FROM person WHERE age = 12"));
+
+        int[] deleted = manager.deleteTestDataBatch("person", List.of(
+                Map.of("age", 10), Map.of("name", "p2", "age", 2), Map.of("name", "missing"), Map.of("age", 3)));
+
+        assertArrayEquals(new int[] {10, 1, 0, 10}, deleted);
+        assertEquals(19, count("SELECT COUNT(*) FROM person"));
+    }
+
+    @Test
+    void failedBatchUpdateWithSingleCommitChangesNothing() throws SQLException {
+        execute("INSERT INTO person (name, email) VALUES ('a', 'a@x'), ('b', 'b@x'), ('c', 'c@x')");
+        manager.setBatchSize(1);
+
+        List<RowUpdate> updates = List.of(
+                new RowUpdate(Map.of("age", 1), Map.of("name", "a")),
+                new RowUpdate(Map.of("email", "a@x"), Map.of("name", "b")));
+
+        assertThrows(SQLException.class, () -> manager.updateTestDataBatch("person", updates, 0));
+        assertEquals(0, count("SELECT COUNT(*) FROM person WHERE age IS NOT NULL"));
+    }
+
+    @Test
+    void unpooledManagerIsSharedAcrossThreads() throws Exception {
+        TestDataManager shared = new TestDataManager("jdbc:h2:mem:test_data_manager;DB_CLOSE_DELAY=-1", "sa", "");
+        shared.connect();
+        // Connecting again is a no-op
+        shared.connect();
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(workers.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        String name = "t" + thread + "-" + i;
+                        shared.insertTestData("person", Map.of("name", name, "age", thread));
+                        assertEquals(1, shared.retrieveTestData("person", Map.of("name", name)).size());
+                    }
+                    assertEquals(50, shared.updateTestData("person", Map.of("age", 100 + thread),
+                            Map.of("age", thread)));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            workers.shutdown();
+            shared.disconnect();
+        }
+
+        assertEquals(400, count("SELECT COUNT(*) FROM person WHERE age >= 100"));
+        assertThrows(SQLException.class, () -> shared.retrieveTestData("person", Map.of()));
+    }
+
+    private long count(String sql) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+
+    private void execute(String... statements) throws SQLException {
+        Connection conn = manager.acquireConnection();
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        } finally {
+            manager.releaseConnection(conn);
+        }
+    }
+}